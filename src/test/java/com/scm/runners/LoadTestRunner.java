@@ -0,0 +1,133 @@
+package com.scm.runners;
+
+import com.scm.utils.LoadRecorder;
+import io.cucumber.core.cli.Main;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load mode: runs the selected scenarios over and over from K virtual users at once, each on its own
+ * virtual thread with its own browser session from {@link com.scm.utils.DriverManager}'s pool, and reports
+ * throughput, error rate and per-step latency percentiles.
+ * <pre>
+ * mvn exec:java@load -Dload.features=classpath:features/ermishoe_login.feature -Dload.sessions=5 -Dload.duration=120
+ * </pre>
+ * <ul>
+ *   <li>{@code -Dload.features} - comma-separated feature paths (default {@code classpath:features})</li>
+ *   <li>{@code -Dload.tags} - tag expression, e.g. {@code @smoke}</li>
+ *   <li>{@code -Dload.sessions} - concurrent virtual users (default 4); the driver pool is sized to match
+ *       unless {@code -Ddriver.pool.size} is set, and sessions are kept warm between iterations
+ *       ({@code -Ddriver.reuse=true}) unless {@code -Ddriver.reuse} is set</li>
+ *   <li>{@code -Dload.duration} - seconds to keep starting new iterations; if 0 (default),
+ *       {@code -Dload.iterations} iterations (default 10) are shared among the users</li>
+ * </ul>
+ * One iteration is one Cucumber run of the selected scenarios. Acquiring a session (starting a browser when
+ * no warm one is idle) is reported as session setup, apart from the scenario and step latencies.
+ * The summary is printed and written to
+ * {@code target/cucumber-reports/load-report.json} ({@code -Dload.report}).
+ */
+public class LoadTestRunner {
+    private static final long PROGRESS_INTERVAL_SECONDS = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        int sessions = Integer.getInteger("load.sessions", 4);
+        long durationSeconds = Long.getLong("load.duration", 0);
+        int iterations = Integer.getInteger("load.iterations", 10);
+        String features = System.getProperty("load.features", "classpath:features");
+        String tags = System.getProperty("load.tags", "");
+        Path report = Paths.get(System.getProperty("load.report", "target/cucumber-reports/load-report.json"));
+
+        // Must happen before DriverManager is loaded by the first scenario
+        if (System.getProperty("driver.pool.size") == null) {
+            System.setProperty("driver.pool.size", String.valueOf(sessions));
+        }
+        // Keep one warm browser per user, so iterations measure the application rather than browser startup
+        if (System.getProperty("driver.reuse") == null) {
+            System.setProperty("driver.reuse", "true");
+        }
+        System.setProperty("cucumber.publish.quiet", "true");
+
+        List<String> cucumberArgs = new ArrayList<>(List.of(
+                "--glue", "com.scm.steps",
+                "--plugin", LoadRecorder.class.getName(),
+                "--monochrome",
+                // LoadRecorder logs every failure; a summary per iteration would drown it
+                "--no-summary"));
+        if (!tags.isBlank()) {
+            cucumberArgs.add("--tags");
+            cucumberArgs.add(tags);
+        }
+        for (String feature : features.split(",")) {
+            cucumberArgs.add(feature.trim());
+        }
+        String[] argv = cucumberArgs.toArray(String[]::new);
+
+        System.out.println("[LoadTestRunner] " + sessions + " sessions, "
+                + (durationSeconds > 0 ? durationSeconds + " s" : iterations + " iterations")
+                + ", features: " + features + (tags.isBlank() ? "" : ", tags: " + tags));
+
+        LoadRecorder.reset();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        AtomicInteger remaining = new AtomicInteger(iterations);
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions; i++) {
+                users.submit(() -> {
+                    // A run started before the deadline is always finished
+                    while (durationSeconds > 0 ? System.nanoTime() < deadline : remaining.getAndDecrement() > 0) {
+                        Main.run(argv, classLoader);
+                    }
+                });
+            }
+            users.shutdown();
+            while (!users.awaitTermination(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS)) {
+                int[] progress = LoadRecorder.progress();
+                double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+                System.out.println(String.format("[LoadTestRunner] %.0f s: %d scenarios, %d failed, %.2f scenarios/s",
+                        elapsed, progress[0], progress[1], progress[0] / elapsed));
+            }
+        }
+
+        LoadRecorder.Summary summary = LoadRecorder.summarize(sessions, System.nanoTime() - start);
+        print(summary);
+        try {
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            Files.writeString(report, LoadRecorder.toJson(summary), StandardCharsets.UTF_8);
+            System.out.println("[LoadTestRunner] ✓ Load report written: " + report);
+        } catch (IOException e) {
+            System.err.println("[LoadTestRunner] ⚠ Could not write " + report + ": " + e.getMessage());
+        }
+    }
+
+    private static void print(LoadRecorder.Summary summary) {
+        System.out.println("\n=== Load Test Results ===");
+        System.out.println(String.format("Sessions: %d, elapsed: %.1f s", summary.sessions(), summary.elapsedSeconds()));
+        System.out.println(String.format("Scenarios: %d (%d failed), throughput: %.2f scenarios/s, error rate: %.1f%%",
+                summary.scenarios(), summary.failed(), summary.throughput(), summary.errorRate() * 100));
+        System.out.println(String.format("%-60s %7s %7s %9s %9s %9s %9s", "", "runs", "errors", "p50", "p95", "p99", "max"));
+        printLatency(summary.scenarioLatency());
+        printLatency(summary.sessionSetup());
+        for (LoadRecorder.Latency step : summary.stepLatencies()) {
+            printLatency(step);
+        }
+        System.out.println("=========================\n");
+    }
+
+    private static void printLatency(LoadRecorder.Latency latency) {
+        String name = latency.name().length() > 60 ? latency.name().substring(0, 57) + "..." : latency.name();
+        System.out.println(String.format("%-60s %7d %7d %8.3fs %8.3fs %8.3fs %8.3fs", name, latency.count(), latency.errors(),
+                latency.p50Nanos() / 1e9, latency.p95Nanos() / 1e9, latency.p99Nanos() / 1e9, latency.maxNanos() / 1e9));
+    }
+}
@@ -8,6 +8,16 @@ import org.junit.platform.suite.api.Suite;
 import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
 import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
 
+/**
+ * Runs every feature on the classpath.
+ * Parallel mode is configured in {@code junit-platform.properties} and switched on with
+ * {@code -Dcucumber.execution.parallel.enabled=true}; each worker thread then borrows
+ * its own browser session from {@link com.scm.utils.DriverManager}'s pool, and the longest scenarios
+ * start first ({@link com.scm.utils.LongestFirstOrder}, from timings {@link com.scm.utils.TimingRecorder} keeps).
+ * The fancy report ({@code test-report-two.html}) is written during the run by
+ * {@link com.scm.utils.LiveReportPlugin}. Scenarios listed in {@code rerun.txt} are rerun once the suite is done
+ * ({@link com.scm.utils.FailedScenarioRerun}).
+ */
 @Suite
 @IncludeEngines("cucumber")
 @SelectClasspathResource("features")
@@ -17,7 +27,9 @@ import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
         " junit:target/cucumber-reports/cucumber.xml," +
         " timeline:target/cucumber-reports/timeline," +
         " usage:target/cucumber-reports/cucumber-usage.json," +
-        " rerun:target/cucumber-reports/rerun.txt")
+        " rerun:target/cucumber-reports/rerun.txt," +
+        " com.scm.utils.TimingRecorder," +
+        " com.scm.utils.LiveReportPlugin:target/cucumber-reports/test-report-two.html")
 @ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "com.scm.steps")
 public class RunCucumberTest {
 }
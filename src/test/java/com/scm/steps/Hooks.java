@@ -1,6 +1,10 @@
 package com.scm.steps;
 
 import com.scm.utils.DriverManager;
+import com.scm.utils.NavigationTiming;
+import com.scm.utils.Samples;
+import com.scm.utils.Spans;
+import com.scm.utils.Waits;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
@@ -8,8 +12,10 @@ import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 public class Hooks {
     private WebDriver driver;
@@ -18,8 +24,13 @@ public class Hooks {
     @Before
     public void setUp(Scenario scenario) {
         driver = DriverManager.getDriver();
+        Waits.reset();
+        Spans.reset();
+        Samples.reset();
+        NavigationTiming.reset();
         scenario.log("Scenario started at: " + LocalDateTime.now().format(FORMATTER));
-        scenario.log("Browser: " + DriverManager.getBrowserName());
+        scenario.log("Browser: " + DriverManager.getBrowserName()
+                + " (profile: " + DriverManager.getProfile().name().toLowerCase() + ")");
     }
 
     @After
@@ -43,9 +54,36 @@ public class Hooks {
             // scenario.attach(screenshot, "image/png", scenario.getName() + "_success");
         }
         
+        // Timings recorded by the steps, rendered by the report
+        List<Spans.Timing> spans = Spans.getTimings();
+        if (!spans.isEmpty()) {
+            scenario.attach(Spans.toJson(spans).getBytes(StandardCharsets.UTF_8), "application/json", Spans.ATTACHMENT_NAME);
+        }
+        
+        // Distributions of repeated measurements
+        List<Samples.Distribution> distributions = Samples.getDistributions();
+        if (!distributions.isEmpty()) {
+            scenario.attach(Samples.toJson(distributions).getBytes(StandardCharsets.UTF_8), "application/json", Samples.ATTACHMENT_NAME);
+        }
+        
+        // Browser-side timing of every page the scenario loaded, including the one it ended on
+        NavigationTiming.collect(driver);
+        List<NavigationTiming.Navigation> navigations = NavigationTiming.getNavigations();
+        if (!navigations.isEmpty()) {
+            scenario.attach(NavigationTiming.toJson(navigations).getBytes(StandardCharsets.UTF_8),
+                    "application/json", NavigationTiming.ATTACHMENT_NAME);
+        }
+        
+        // Where the scenario spent its time waiting
+        List<Waits.Outcome> waits = Waits.getOutcomes();
+        if (!waits.isEmpty()) {
+            scenario.log("Waits: " + Waits.summary(waits));
+            scenario.attach(Waits.toJson(waits).getBytes(StandardCharsets.UTF_8), "application/json", "waits");
+        }
+        
         scenario.log("Scenario completed at: " + LocalDateTime.now().format(FORMATTER));
         scenario.log("Status: " + (scenario.isFailed() ? "FAILED" : "PASSED"));
         
-        DriverManager.quitDriver();
+        DriverManager.releaseDriver();
     }
 }
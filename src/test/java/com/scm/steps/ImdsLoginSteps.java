@@ -1,6 +1,11 @@
 package com.scm.steps;
 
 import com.scm.utils.DriverManager;
+import com.scm.utils.FixtureServer;
+import com.scm.utils.NavigationTiming;
+import com.scm.utils.PageReadiness;
+import com.scm.utils.SelectorResolver;
+import com.scm.utils.Waits;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
@@ -9,32 +14,32 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
+import java.util.Optional;
 
 public class ImdsLoginSteps {
+    private static final By LIGHTBOX_BUTTON = By.xpath("//*[@id=\"lightbox\"]/div[1]/div/div[2]/div/button");
+
     private WebDriver driver;
-    private WebDriverWait wait;
+    // Live site, a fixture server or -Dbase.url.imds
+    private final String baseUrl;
 
     public ImdsLoginSteps() {
         this.driver = DriverManager.getDriver();
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+        this.baseUrl = FixtureServer.baseUrl("imds", "https://imds.cce.af.mil");
     }
 
     @Given("I navigate to the IMDS login page")
     public void i_navigate_to_the_imds_login_page() {
         try {
             // Navigate to the page with extended timeout handling
-            driver.get("https://imds.cce.af.mil/imds/fs/fs000cams.html");
+            NavigationTiming.beforeNavigation(driver);
+            driver.get(baseUrl + "/imds/fs/fs000cams.html");
         } catch (org.openqa.selenium.TimeoutException e) {
-            // If page load times out, wait a bit and check if page is still loading
+            // If page load times out, wait for the page to settle and check if we got there
             System.out.println("Page load timeout occurred, waiting for page to stabilize...");
-            try {
-                Thread.sleep(5000);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-            }
+            PageReadiness.await(driver);
             // Check if we're on the page by checking current URL
             String currentUrl = driver.getCurrentUrl();
             if (!currentUrl.contains("imds")) {
@@ -43,64 +48,46 @@ public class ImdsLoginSteps {
         }
         
         // Wait for page to load with extended timeout
-        WebDriverWait extendedWait = new WebDriverWait(driver, Duration.ofSeconds(30));
-        try {
-            extendedWait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
-        } catch (Exception e) {
+        if (Waits.optional(driver, "IMDS page body", Duration.ofSeconds(30),
+                ExpectedConditions.presenceOfElementLocated(By.tagName("body"))).isEmpty()) {
             // If body is not found, check if page is still accessible
             String currentUrl = driver.getCurrentUrl();
             System.out.println("Warning: Could not find body element. Current URL: " + currentUrl);
         }
         
-        // Additional wait for page to fully initialize
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        // Wait for page to fully initialize (scripts, requests, animations)
+        PageReadiness.await(driver);
         
-        // Click the lightbox button if it appears
-        try {
-            WebElement lightboxButton = wait.until(ExpectedConditions.elementToBeClickable(
-                By.xpath("//*[@id=\"lightbox\"]/div[1]/div/div[2]/div/button")));
-            if (lightboxButton.isDisplayed()) {
-                lightboxButton.click();
-                System.out.println("Clicked lightbox button");
-                // Wait a moment for the lightbox to close
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        } catch (Exception e) {
-            // Lightbox button not found or not visible, continue
+        // Click the lightbox button if it is shown (the page is ready, so one probe is enough)
+        Optional<WebElement> lightboxButton = Waits.probe(driver, "IMDS lightbox", LIGHTBOX_BUTTON);
+        if (lightboxButton.isPresent()) {
+            lightboxButton.get().click();
+            System.out.println("Clicked lightbox button");
+            // Wait for the lightbox to close
+            Waits.absent(driver, "IMDS lightbox closed", LIGHTBOX_BUTTON);
+            PageReadiness.await(driver, PageReadiness.DEFAULT_TIMEOUT, PageReadiness.Condition.NO_ANIMATIONS);
+        } else {
             System.out.println("Lightbox button not found or not visible, continuing...");
         }
         
-        // Click the PKI login button
-        try {
-            WebElement pkiLoginButton = wait.until(ExpectedConditions.elementToBeClickable(
-                By.xpath("//*[@id=\"pki-login\"]")));
-            if (pkiLoginButton.isDisplayed()) {
-                pkiLoginButton.click();
-                System.out.println("Clicked PKI login button");
-                // Wait a moment for any transition
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        } catch (Exception e) {
-            // PKI login button not found or not visible, continue
+        // Click the PKI login button (may appear once the lightbox is gone)
+        Optional<WebElement> pkiLoginButton = Waits.optional(driver, "IMDS PKI login button",
+                ExpectedConditions.elementToBeClickable(By.xpath("//*[@id=\"pki-login\"]")));
+        if (pkiLoginButton.isPresent()) {
+            NavigationTiming.beforeNavigation(driver);
+            pkiLoginButton.get().click();
+            System.out.println("Clicked PKI login button");
+            // Wait for any transition
+            PageReadiness.await(driver);
+        } else {
             System.out.println("PKI login button not found or not visible, continuing...");
         }
     }
 
     @When("I enter terminal ID {string}")
     public void i_enter_terminal_id(String terminalId) {
-        WebElement terminalIdField = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath("//*[@id=\"TerminalId\"]")));
+        WebElement terminalIdField = Waits.required(driver, "terminal ID field",
+                ExpectedConditions.presenceOfElementLocated(By.xpath("//*[@id=\"TerminalId\"]")));
         terminalIdField.clear();
         terminalIdField.click();
         terminalIdField.sendKeys(terminalId);
@@ -108,37 +95,28 @@ public class ImdsLoginSteps {
 
     @When("I click the IMDS login button")
     public void i_click_the_imds_login_button() {
-        WebElement loginButton = wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//*[@id=\"TerminalLogon\"]")));
+        WebElement loginButton = Waits.required(driver, "IMDS login button",
+                ExpectedConditions.elementToBeClickable(By.xpath("//*[@id=\"TerminalLogon\"]")));
+        NavigationTiming.beforeNavigation(driver);
         loginButton.click();
         
         // Wait for login to process
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        PageReadiness.await(driver);
     }
 
     @Then("I should be logged into IMDS successfully")
     public void i_should_be_logged_into_imds_successfully() {
-        // Wait for page to change after login
-        WebDriverWait extendedWait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        try {
-            // Wait for URL change or success indicator
-            extendedWait.until(ExpectedConditions.or(
-                ExpectedConditions.not(ExpectedConditions.urlContains("fs000cams")),
-                ExpectedConditions.presenceOfElementLocated(By.tagName("body"))
-            ));
-        } catch (Exception e) {
+        // Wait for URL change or success indicator
+        boolean changed = Waits.optional(driver, "page change after IMDS login", Duration.ofSeconds(10), ExpectedConditions.or(
+            ExpectedConditions.not(ExpectedConditions.urlContains("fs000cams")),
+            ExpectedConditions.presenceOfElementLocated(By.tagName("body"))
+        )).isPresent();
+        if (!changed) {
             // Check for error messages
-            try {
-                WebElement errorMessage = driver.findElement(By.cssSelector("[class*='error'], [class*='alert']"));
-                if (errorMessage.isDisplayed()) {
+            Waits.probe(driver, "IMDS login error banner", By.cssSelector("[class*='error'], [class*='alert']"))
+                .ifPresent(errorMessage -> {
                     throw new AssertionError("Login failed: " + errorMessage.getText());
-                }
-            } catch (Exception ignore) {
-                // No error message found
-            }
+                });
         }
     }
 
@@ -149,27 +127,12 @@ public class ImdsLoginSteps {
         Assert.assertFalse("Should not be on login page", currentUrl.contains("fs000cams"));
         
         // Check for common dashboard/home indicators
-        boolean foundIndicator = false;
-        By[] dashboardSelectors = new By[] {
+        boolean foundIndicator = SelectorResolver.find(driver, "imds.dashboard",
             By.cssSelector("[class*='dashboard']"),
             By.cssSelector("[class*='home']"),
             By.cssSelector("nav"),
-            By.cssSelector("header"),
-            By.xpath("//*[contains(@class, 'dashboard')]"),
-            By.xpath("//*[contains(@class, 'home')]")
-        };
-        
-        for (By selector : dashboardSelectors) {
-            try {
-                WebElement element = driver.findElement(selector);
-                if (element.isDisplayed()) {
-                    foundIndicator = true;
-                    break;
-                }
-            } catch (Exception ignore) {
-                // Continue checking other selectors
-            }
-        }
+            By.cssSelector("header")
+        ).isPresent();
         
         if (!foundIndicator) {
             System.out.println("Warning: Could not find specific dashboard/home indicator, but URL suggests successful navigation");
@@ -0,0 +1,17 @@
+package com.scm.steps;
+
+import io.cucumber.java.ParameterType;
+
+/**
+ * Custom parameter types shared by all step definitions.
+ */
+public class ParameterTypes {
+
+    /**
+     * A percentile such as "p50", "p95" or "p99.9", or "max" (the 100th percentile).
+     */
+    @ParameterType("p\\d{1,2}(?:\\.\\d+)?|max")
+    public Double percentile(String value) {
+        return "max".equals(value) ? 100.0 : Double.parseDouble(value.substring(1));
+    }
+}
@@ -0,0 +1,88 @@
+package com.scm.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads text, visibility, attributes and bounding boxes of every element matching a CSS selector
+ * in one {@code executeScript} call, instead of one WebDriver round trip per element and property.
+ * Results are plain snapshots: they do not go stale, and cannot be clicked.
+ */
+public class DomExtractor {
+
+    /**
+     * Position and size relative to the viewport, in CSS pixels.
+     */
+    public record Box(double x, double y, double width, double height) {
+    }
+
+    /**
+     * @param text       rendered text ({@code innerText}), trimmed
+     * @param attributes the requested attributes that are present on the element
+     */
+    public record Node(String tag, String text, boolean visible, Map<String, String> attributes, Box box) {
+    }
+
+    private static final String EXTRACT_SCRIPT =
+            "var names = arguments[1];\n"
+            + "return Array.prototype.map.call(document.querySelectorAll(arguments[0]), function (el) {\n"
+            + "  var rect = el.getBoundingClientRect();\n"
+            + "  var style = getComputedStyle(el);\n"
+            + "  var visible = el.checkVisibility\n"
+            + "      ? el.checkVisibility({ checkOpacity: true, checkVisibilityCSS: true })\n"
+            + "      : el.getClientRects().length > 0 && style.visibility !== 'hidden' && style.opacity !== '0';\n"
+            + "  var attributes = {};\n"
+            + "  names.forEach(function (name) {\n"
+            + "    if (el.hasAttribute(name)) attributes[name] = el.getAttribute(name);\n"
+            + "  });\n"
+            + "  return [el.tagName.toLowerCase(), (el.innerText || '').trim(), visible, attributes,\n"
+            + "          rect.x, rect.y, rect.width, rect.height];\n"
+            + "});";
+
+    /**
+     * @param cssSelector selector (or selector list) to match, in document order
+     * @param attributes  attribute names to read from every match, e.g. "href"
+     */
+    public static List<Node> extract(WebDriver driver, String cssSelector, String... attributes) {
+        Object result = ((JavascriptExecutor) driver).executeScript(EXTRACT_SCRIPT, cssSelector, Arrays.asList(attributes));
+        List<Node> nodes = new ArrayList<>();
+        if (!(result instanceof List<?> rows)) {
+            return nodes;
+        }
+        for (Object row : rows) {
+            List<?> values = (List<?>) row;
+            Map<String, String> attributeValues = new LinkedHashMap<>();
+            ((Map<?, ?>) values.get(3)).forEach((name, value) -> attributeValues.put(String.valueOf(name), String.valueOf(value)));
+            nodes.add(new Node(
+                    (String) values.get(0),
+                    (String) values.get(1),
+                    Boolean.TRUE.equals(values.get(2)),
+                    attributeValues,
+                    new Box(number(values.get(4)), number(values.get(5)), number(values.get(6)), number(values.get(7)))));
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the text of every visible match that has any text
+     */
+    public static List<String> visibleTexts(WebDriver driver, String cssSelector) {
+        List<String> texts = new ArrayList<>();
+        for (Node node : extract(driver, cssSelector)) {
+            if (node.visible() && !node.text().isEmpty()) {
+                texts.add(node.text());
+            }
+        }
+        return texts;
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number n ? n.doubleValue() : 0;
+    }
+}
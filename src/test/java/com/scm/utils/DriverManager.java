@@ -1,10 +1,10 @@
 package com.scm.utils;
 
 import io.github.bonigarcia.wdm.WebDriverManager;
-import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
@@ -15,18 +15,67 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class DriverManager {
-    private static WebDriver driver;
+    // Each executing thread owns at most one session, borrowed from the shared pool
+    private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
     private static String browserName = System.getProperty("browser", "chrome").toLowerCase();
+    // Resolved by the first getDriver(), so a misspelled -Dprofile fails scenarios with its message
+    // instead of failing the class initialization
+    private static volatile ExecutionProfile profile;
+    private static final boolean IS_WINDOWS = System.getProperty("os.name", "").toLowerCase().contains("win");
+    private static final Pattern CHROME_VERSION_PATTERN = Pattern.compile("(\\d+\\.\\d+\\.\\d+\\.\\d+)");
+    private static final Pattern VERSION_DIR_PATTERN = Pattern.compile("^(\\d+\\.\\d+\\.\\d+\\.\\d+)$");
+    private static final Pattern DRIVER_VERSION_PATTERN = Pattern.compile("(\\d+)\\.\\d+\\.\\d+");
+    private static final String[] FIREFOX_PATHS = {
+            "C:\\Program Files\\Mozilla Firefox\\firefox.exe",
+            "C:\\Program Files (x86)\\Mozilla Firefox\\firefox.exe",
+            "/usr/bin/firefox",
+            "/usr/lib/firefox/firefox",
+            "/snap/bin/firefox",
+            "/Applications/Firefox.app/Contents/MacOS/firefox"
+    };
+    private static final String[] EDGE_PATHS = {
+            "C:\\Program Files (x86)\\Microsoft\\Edge\\Application\\msedge.exe",
+            "C:\\Program Files\\Microsoft\\Edge\\Application\\msedge.exe",
+            "/usr/bin/microsoft-edge",
+            "/usr/bin/microsoft-edge-stable",
+            "/opt/microsoft/msedge/msedge",
+            "/Applications/Microsoft Edge.app/Contents/MacOS/Microsoft Edge"
+    };
+    // With -Ddriver.reuse=true a browser is kept warm across scenarios instead of quit after each one
+    private static final boolean reuseSessions = Boolean.getBoolean("driver.reuse");
+    private static final DriverPool pool = new DriverPool(
+            Integer.getInteger("driver.pool.size", 4),
+            Duration.ofSeconds(Long.getLong("driver.pool.timeout", 300L)),
+            DriverManager::createDriver,
+            reuseSessions ? Integer.getInteger("driver.reuse.maxScenarios", 25) : 1,
+            Long.getLong("driver.reuse.maxHeapMb", 512L));
 
+    static {
+        // Make sure no browser outlives the JVM if a scenario never reached its tearDown
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::shutdown, "driver-pool-shutdown"));
+    }
+
+    /**
+     * Returns the session bound to the calling thread, acquiring one from the pool on first use.
+     * Blocks while the pool is exhausted, up to {@code -Ddriver.pool.timeout} seconds.
+     */
     public static WebDriver getDriver() {
-        if (driver == null) {
-            driver = createDriver();
+        WebDriver webDriver = driver.get();
+        if (webDriver == null) {
+            // Before borrowing, so an unknown profile is reported as such rather than as a failed session
+            getProfile();
+            webDriver = pool.acquire();
+            driver.set(webDriver);
         }
-        return driver;
+        return webDriver;
     }
 
     private static WebDriver createDriver() {
@@ -36,106 +85,38 @@ public class DriverManager {
             case "chrome":
                 System.out.println("[DriverManager] Setting up ChromeDriver...");
                 
-                // Detect Chrome browser version
-                String chromeVersion = detectChromeVersion();
-                if (chromeVersion != null) {
-                    System.out.println("[DriverManager] Detected Chrome browser version: " + chromeVersion);
-                    System.out.println("[DriverManager] → You need ChromeDriver version: " + chromeVersion.split("\\.")[0]);
-                    System.out.println("[DriverManager] → Download from: https://googlechromelabs.github.io/chrome-for-testing/");
+                // Locate the Chrome binary first: its path and mtime key the resolution cache
+                String chromePath = findBinary(chromeBinaryPaths());
+                if (chromePath != null) {
+                    System.out.println("[DriverManager] ✓ Found Chrome at: " + chromePath);
                 } else {
-                    System.out.println("[DriverManager] ⚠ Could not detect Chrome version automatically");
-                    System.out.println("[DriverManager] → Check manually: Chrome → Settings → About Chrome");
+                    System.err.println("[DriverManager] ⚠ WARNING: Chrome browser not found in standard locations!");
+                    System.err.println("[DriverManager] ChromeDriver will try to find Chrome automatically...");
                 }
                 
-                // Priority 1: Check for local driver in project's drivers folder
-                String projectDir = System.getProperty("user.dir");
-                String localDriverPath = projectDir + File.separator + "drivers" + File.separator + "chromedriver.exe";
-                File localDriver = new File(localDriverPath);
-                
-                if (localDriver.exists()) {
-                    System.out.println("[DriverManager] ✓ Found local ChromeDriver at: " + localDriverPath);
-                    
-                    // Verify ChromeDriver version if possible
-                    try {
-                        ProcessBuilder pb = new ProcessBuilder(localDriverPath, "--version");
-                        Process process = pb.start();
-                        java.io.BufferedReader reader = new java.io.BufferedReader(
-                            new java.io.InputStreamReader(process.getInputStream()));
-                        String versionLine = reader.readLine();
-                        if (versionLine != null) {
-                            System.out.println("[DriverManager] ChromeDriver version: " + versionLine);
-                            // Extract major version number
-                            Pattern versionPattern = Pattern.compile("(\\d+)\\.\\d+\\.\\d+");
-                            Matcher versionMatcher = versionPattern.matcher(versionLine);
-                            if (versionMatcher.find()) {
-                                String driverMajorVersion = versionMatcher.group(1);
-                                String chromeMajorVersion = chromeVersion != null ? chromeVersion.split("\\.")[0] : "?";
-                                if (!driverMajorVersion.equals(chromeMajorVersion)) {
-                                    System.err.println("[DriverManager] ⚠ WARNING: Version mismatch!");
-                                    System.err.println("[DriverManager]    Chrome browser: " + chromeMajorVersion);
-                                    System.err.println("[DriverManager]    ChromeDriver: " + driverMajorVersion);
-                                    System.err.println("[DriverManager]    They must match! Download ChromeDriver version " + chromeMajorVersion);
-                                } else {
-                                    System.out.println("[DriverManager] ✓ Version match confirmed!");
-                                }
-                            }
-                        }
-                        process.waitFor();
-                    } catch (Exception e) {
-                        System.out.println("[DriverManager] Could not verify ChromeDriver version: " + e.getMessage());
-                    }
-                    
-                    System.setProperty("webdriver.chrome.driver", localDriverPath);
-                    System.out.println("[DriverManager] Using local ChromeDriver from project directory");
+                // Warm start: reuse the last resolution for this exact binary (no probes, no network)
+                DriverResolutionCache.Resolution chromeResolution = DriverResolutionCache.lookup("chrome", chromePath);
+                if (chromeResolution != null) {
+                    System.out.println("[DriverManager] ✓ Using cached driver resolution: Chrome "
+                            + Objects.toString(chromeResolution.browserVersion(), "unknown")
+                            + ", ChromeDriver " + Objects.toString(chromeResolution.driverVersion(), "unknown")
+                            + (chromeResolution.driverPath() != null ? " at " + chromeResolution.driverPath() : " from system PATH"));
                 } else {
-                    // Priority 2: Try WebDriverManager (if not skipped)
-                    String skipWdm = System.getProperty("skip.webdrivermanager", "false");
-                    boolean useWdm = !"true".equalsIgnoreCase(skipWdm);
-                    
-                    if (useWdm) {
-                        try {
-                            System.out.println("[DriverManager] Local driver not found. Attempting WebDriverManager...");
-                            WebDriverManager wdm = WebDriverManager.chromedriver();
-                            wdm.setup();
-                            System.out.println("[DriverManager] ✓ ChromeDriver setup via WebDriverManager successful!");
-                        } catch (Exception e) {
-                            System.err.println("[DriverManager] ⚠ WebDriverManager failed: " + e.getClass().getSimpleName());
-                            System.err.println("[DriverManager] → Falling back to system PATH ChromeDriver...");
-                            // Continue to use system PATH driver
-                        }
-                    } else {
-                        System.out.println("[DriverManager] Local driver not found. Skipping WebDriverManager (using system PATH)...");
-                    }
+                    chromeResolution = resolveChromeDriver(chromePath);
+                    DriverResolutionCache.store("chrome", chromePath, chromeResolution);
                 }
-                
-                // Verify Chrome browser is accessible
-                System.out.println("[DriverManager] Verifying Chrome browser accessibility...");
-                String[] chromePaths = {
-                        "C:\\Program Files\\Google\\Chrome\\Application\\chrome.exe",
-                        "C:\\Program Files (x86)\\Google\\Chrome\\Application\\chrome.exe",
-                        System.getenv("LOCALAPPDATA") + "\\Google\\Chrome\\Application\\chrome.exe"
-                };
-                
-                boolean chromeFound = false;
-                String chromePath = null;
-                for (String path : chromePaths) {
-                    File chromeExe = new File(path);
-                    if (chromeExe.exists()) {
-                        chromeFound = true;
-                        chromePath = path;
-                        System.out.println("[DriverManager] ✓ Found Chrome at: " + path);
-                        break;
-                    }
-                }
-                
-                if (!chromeFound) {
-                    System.err.println("[DriverManager] ⚠ WARNING: Chrome browser not found in standard locations!");
-                    System.err.println("[DriverManager] ChromeDriver will try to find Chrome automatically...");
+                if (chromeResolution.driverPath() != null) {
+                    System.setProperty("webdriver.chrome.driver", chromeResolution.driverPath());
                 }
                 
                 ChromeOptions chromeOptions = new ChromeOptions();
-                // Uncomment the line below to run in headless mode
-                // chromeOptions.addArguments("--headless");
+                if (getProfile().isHeadless()) {
+                    chromeOptions.addArguments("--headless=new");
+                }
+                if (getProfile().getWindowSize() != null) {
+                    chromeOptions.addArguments("--window-size=" + getProfile().getWindowSize().getWidth()
+                            + "," + getProfile().getWindowSize().getHeight());
+                }
                 
                 // Add some helpful Chrome options for better compatibility
                 chromeOptions.addArguments("--no-sandbox");
@@ -149,8 +130,8 @@ public class DriverManager {
                 chromeOptions.addArguments("--ignore-certificate-errors");
                 chromeOptions.addArguments("--ignore-ssl-errors");
                 chromeOptions.addArguments("--ignore-certificate-errors-spki-list");
-                // Set page load strategy to 'normal' for better compatibility
-                chromeOptions.setPageLoadStrategy(PageLoadStrategy.NORMAL);
+                // Page load strategy comes from the execution profile ('normal' unless -Dprofile=fast)
+                chromeOptions.setPageLoadStrategy(getProfile().getPageLoadStrategy());
                 
                 // If Chrome path was found, explicitly set it
                 if (chromePath != null) {
@@ -184,16 +165,27 @@ public class DriverManager {
                 }
                 break;
             case "firefox":
-                WebDriverManager.firefoxdriver().setup();
+                String firefoxPath = findBinary(FIREFOX_PATHS);
+                resolveDriver("firefox", firefoxPath, "webdriver.gecko.driver", WebDriverManager::firefoxdriver);
                 FirefoxOptions firefoxOptions = new FirefoxOptions();
-                // Uncomment the line below to run in headless mode
-                // firefoxOptions.addArguments("--headless");
+                if (firefoxPath != null) {
+                    firefoxOptions.setBinary(firefoxPath);
+                }
+                if (getProfile().isHeadless()) {
+                    firefoxOptions.addArguments("-headless");
+                }
+                firefoxOptions.setPageLoadStrategy(getProfile().getPageLoadStrategy());
+                if (!getProfile().getBlockedUrlPatterns().isEmpty()) {
+                    // Firefox has no DevTools URL blocking here; at least stop it from loading images
+                    firefoxOptions.addPreference("permissions.default.image", 2);
+                }
                 webDriver = new FirefoxDriver(firefoxOptions);
                 break;
             case "edge":
+                String edgePath = findBinary(EDGE_PATHS);
                 try {
-                    // Try to setup Edge driver
-                    WebDriverManager.edgedriver().setup();
+                    // Try to setup Edge driver (skipped when a cached resolution exists)
+                    resolveDriver("edge", edgePath, "webdriver.edge.driver", WebDriverManager::edgedriver);
                 } catch (Exception e) {
                     System.err.println("ERROR: Could not download Edge driver from the internet.");
                     System.err.println("Possible causes:");
@@ -208,32 +200,72 @@ public class DriverManager {
                     throw new RuntimeException("Edge driver setup failed. See error messages above.", e);
                 }
                 EdgeOptions edgeOptions = new EdgeOptions();
-                // Uncomment the line below to run in headless mode
-                // edgeOptions.addArguments("--headless");
+                if (edgePath != null) {
+                    edgeOptions.setBinary(edgePath);
+                }
+                if (getProfile().isHeadless()) {
+                    edgeOptions.addArguments("--headless=new");
+                }
+                edgeOptions.setPageLoadStrategy(getProfile().getPageLoadStrategy());
                 webDriver = new EdgeDriver(edgeOptions);
                 break;
             default:
                 throw new IllegalArgumentException("Browser not supported: " + browserName);
         }
 
-        webDriver.manage().window().maximize();
-        webDriver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        // Increased page load timeout for slow-loading pages (e.g., IMDS)
-        webDriver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(120));
+        if (getProfile().getWindowSize() != null) {
+            webDriver.manage().window().setSize(getProfile().getWindowSize());
+        } else {
+            webDriver.manage().window().maximize();
+        }
+        blockUrls(webDriver, getProfile().getBlockedUrlPatterns());
+        // -Dnetwork.mode=record|replay: save the session's traffic or serve it from the archive
+        NetworkArchive.attach(webDriver);
+        PageReadiness.attach(webDriver);
+        // No implicit wait: every wait is explicit and budgeted by Waits, so waits never compound
+        webDriver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        // Increased page load timeout for slow-loading pages (e.g., IMDS); replayed pages never wait on a host
+        webDriver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(
+                NetworkArchive.getMode() == NetworkArchive.Mode.REPLAY ? 30 : 120));
 
         return webDriver;
     }
 
+    /**
+     * Hands the calling thread's session back to the pool and unbinds it from the thread.
+     */
+    public static void releaseDriver() {
+        WebDriver webDriver = driver.get();
+        if (webDriver != null) {
+            driver.remove();
+            pool.release(webDriver);
+        }
+    }
+
+    /**
+     * Quits the calling thread's session outright and frees its pool slot.
+     */
     public static void quitDriver() {
-        if (driver != null) {
-            driver.quit();
-            driver = null;
+        WebDriver webDriver = driver.get();
+        if (webDriver != null) {
+            driver.remove();
+            pool.discard(webDriver);
         }
     }
 
+    /**
+     * Quits every session in the pool, idle or checked out, so the next scenario starts on a new browser.
+     * Only safe between runs, when no scenario is using a session.
+     */
+    public static void quitAll() {
+        driver.remove();
+        pool.shutdown();
+    }
+
     public static void closeDriver() {
-        if (driver != null) {
-            driver.close();
+        WebDriver webDriver = driver.get();
+        if (webDriver != null) {
+            webDriver.close();
         }
     }
 
@@ -242,60 +274,238 @@ public class DriverManager {
     }
 
     /**
-     * Detects Chrome browser version by reading the version file
-     * @return Chrome version string (e.g., "120.0.6099.109") or null if not found
+     * @throws IllegalArgumentException if {@code -Dprofile} does not name a profile
+     */
+    public static ExecutionProfile getProfile() {
+        ExecutionProfile current = profile;
+        if (current == null) {
+            current = profile = ExecutionProfile.current();
+        }
+        return current;
+    }
+
+    /**
+     * Blocks matching requests for the lifetime of the session through the DevTools protocol
+     * (Chrome and Edge only).
+     */
+    private static void blockUrls(WebDriver webDriver, List<String> patterns) {
+        if (patterns.isEmpty() || !(webDriver instanceof HasCdp)) {
+            return;
+        }
+        try {
+            HasCdp cdp = (HasCdp) webDriver;
+            cdp.executeCdpCommand("Network.enable", Map.of());
+            cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", patterns));
+            System.out.println("[DriverManager] Blocking " + patterns.size() + " URL patterns (profile: "
+                    + getProfile().name().toLowerCase() + ")");
+        } catch (Exception e) {
+            System.err.println("[DriverManager] ⚠ Could not enable URL blocking: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cold-start resolution for Chrome: detects the browser version, then picks a driver
+     * from the project's drivers folder, WebDriverManager or the system PATH (in that order).
+     */
+    private static DriverResolutionCache.Resolution resolveChromeDriver(String chromePath) {
+        // Detect Chrome browser version
+        String chromeVersion = detectChromeVersion(chromePath);
+        if (chromeVersion != null) {
+            System.out.println("[DriverManager] Detected Chrome browser version: " + chromeVersion);
+            System.out.println("[DriverManager] → You need ChromeDriver version: " + chromeVersion.split("\\.")[0]);
+            System.out.println("[DriverManager] → Download from: https://googlechromelabs.github.io/chrome-for-testing/");
+        } else {
+            System.out.println("[DriverManager] ⚠ Could not detect Chrome version automatically");
+            System.out.println("[DriverManager] → Check manually: Chrome → Settings → About Chrome");
+        }
+        
+        // Priority 1: Check for local driver in project's drivers folder
+        String projectDir = System.getProperty("user.dir");
+        String localDriverPath = projectDir + File.separator + "drivers" + File.separator
+                + (IS_WINDOWS ? "chromedriver.exe" : "chromedriver");
+        File localDriver = new File(localDriverPath);
+        
+        if (localDriver.exists()) {
+            System.out.println("[DriverManager] ✓ Found local ChromeDriver at: " + localDriverPath);
+            
+            // Verify ChromeDriver version if possible
+            String driverVersion = null;
+            try {
+                ProcessBuilder pb = new ProcessBuilder(localDriverPath, "--version");
+                Process process = pb.start();
+                java.io.BufferedReader reader = new java.io.BufferedReader(
+                    new java.io.InputStreamReader(process.getInputStream()));
+                String versionLine = reader.readLine();
+                if (versionLine != null) {
+                    System.out.println("[DriverManager] ChromeDriver version: " + versionLine);
+                    // Extract major version number
+                    Matcher versionMatcher = DRIVER_VERSION_PATTERN.matcher(versionLine);
+                    if (versionMatcher.find()) {
+                        driverVersion = versionMatcher.group();
+                        String driverMajorVersion = versionMatcher.group(1);
+                        String chromeMajorVersion = chromeVersion != null ? chromeVersion.split("\\.")[0] : "?";
+                        if (!driverMajorVersion.equals(chromeMajorVersion)) {
+                            System.err.println("[DriverManager] ⚠ WARNING: Version mismatch!");
+                            System.err.println("[DriverManager]    Chrome browser: " + chromeMajorVersion);
+                            System.err.println("[DriverManager]    ChromeDriver: " + driverMajorVersion);
+                            System.err.println("[DriverManager]    They must match! Download ChromeDriver version " + chromeMajorVersion);
+                        } else {
+                            System.out.println("[DriverManager] ✓ Version match confirmed!");
+                        }
+                    }
+                }
+                process.waitFor();
+            } catch (Exception e) {
+                System.out.println("[DriverManager] Could not verify ChromeDriver version: " + e.getMessage());
+            }
+            
+            System.out.println("[DriverManager] Using local ChromeDriver from project directory");
+            return new DriverResolutionCache.Resolution(chromeVersion, localDriverPath, driverVersion);
+        }
+        
+        // Priority 2: Try WebDriverManager (if not skipped)
+        String skipWdm = System.getProperty("skip.webdrivermanager", "false");
+        boolean useWdm = !"true".equalsIgnoreCase(skipWdm);
+        
+        if (useWdm) {
+            try {
+                System.out.println("[DriverManager] Local driver not found. Attempting WebDriverManager...");
+                WebDriverManager wdm = WebDriverManager.chromedriver();
+                wdm.setup();
+                System.out.println("[DriverManager] ✓ ChromeDriver setup via WebDriverManager successful!");
+                return new DriverResolutionCache.Resolution(
+                        chromeVersion, wdm.getDownloadedDriverPath(), wdm.getDownloadedDriverVersion());
+            } catch (Exception e) {
+                System.err.println("[DriverManager] ⚠ WebDriverManager failed: " + e.getClass().getSimpleName());
+                System.err.println("[DriverManager] → Falling back to system PATH ChromeDriver...");
+                System.err.println("[DriverManager]   (cached for this Chrome binary; run with -Ddriver.cache=false to retry)");
+                // Continue to use system PATH driver
+            }
+        } else {
+            System.out.println("[DriverManager] Local driver not found. Skipping WebDriverManager (using system PATH)...");
+        }
+        return new DriverResolutionCache.Resolution(chromeVersion, null, null);
+    }
+
+    /**
+     * Points {@code driverProperty} at a cached driver binary, or resolves one through
+     * WebDriverManager and caches it for the next start.
      */
-    private static String detectChromeVersion() {
-        // Common Chrome installation paths on Windows
-        String[] chromePaths = {
+    private static void resolveDriver(String browser, String binaryPath, String driverProperty,
+                                      Supplier<WebDriverManager> managerFactory) {
+        DriverResolutionCache.Resolution cached = DriverResolutionCache.lookup(browser, binaryPath);
+        if (cached != null && cached.driverPath() != null) {
+            System.out.println("[DriverManager] ✓ Using cached " + browser + " driver "
+                    + Objects.toString(cached.driverVersion(), "unknown")
+                    + " at " + cached.driverPath());
+            System.setProperty(driverProperty, cached.driverPath());
+            return;
+        }
+        WebDriverManager wdm = managerFactory.get();
+        wdm.setup();
+        DriverResolutionCache.store(browser, binaryPath, new DriverResolutionCache.Resolution(
+                null, wdm.getDownloadedDriverPath(), wdm.getDownloadedDriverVersion()));
+    }
+
+    /**
+     * @return the first existing path, or null if none exists
+     */
+    private static String findBinary(String[] candidates) {
+        for (String path : candidates) {
+            if (path != null && new File(path).isFile()) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private static String[] chromeBinaryPaths() {
+        return new String[] {
+                // Windows
                 "C:\\Program Files\\Google\\Chrome\\Application\\chrome.exe",
                 "C:\\Program Files (x86)\\Google\\Chrome\\Application\\chrome.exe",
-                System.getenv("LOCALAPPDATA") + "\\Google\\Chrome\\Application\\chrome.exe",
-                System.getenv("PROGRAMFILES") + "\\Google\\Chrome\\Application\\chrome.exe",
-                System.getenv("PROGRAMFILES(X86)") + "\\Google\\Chrome\\Application\\chrome.exe"
+                envPath("LOCALAPPDATA", "\\Google\\Chrome\\Application\\chrome.exe"),
+                envPath("PROGRAMFILES", "\\Google\\Chrome\\Application\\chrome.exe"),
+                envPath("PROGRAMFILES(X86)", "\\Google\\Chrome\\Application\\chrome.exe"),
+                // Linux
+                "/usr/bin/google-chrome",
+                "/usr/bin/google-chrome-stable",
+                "/opt/google/chrome/chrome",
+                "/usr/bin/chromium",
+                "/usr/bin/chromium-browser",
+                "/snap/bin/chromium",
+                // macOS
+                "/Applications/Google Chrome.app/Contents/MacOS/Google Chrome"
         };
+    }
 
-        for (String chromePath : chromePaths) {
-            File chromeExe = new File(chromePath);
-            if (chromeExe.exists()) {
-                // Chrome version is in a file in the same directory
-                Path chromeDir = chromeExe.toPath().getParent();
-                Path versionFile = chromeDir.resolve("version");
-                
-                if (Files.exists(versionFile)) {
-                    try {
-                        String content = Files.readString(versionFile);
-                        // Extract version number (format: 120.0.6099.109)
-                        Pattern pattern = Pattern.compile("(\\d+\\.\\d+\\.\\d+\\.\\d+)");
-                        Matcher matcher = pattern.matcher(content);
+    private static String envPath(String variable, String suffix) {
+        String base = System.getenv(variable);
+        return base != null ? base + suffix : null;
+    }
+
+    /**
+     * Detects Chrome browser version by reading the version file next to the binary,
+     * falling back to {@code chrome --version} on platforms without one.
+     * Only runs on a resolution cache miss.
+     * @return Chrome version string (e.g., "120.0.6099.109") or null if not found
+     */
+    private static String detectChromeVersion(String chromePath) {
+        if (chromePath == null) {
+            return null;
+        }
+        File chromeExe = new File(chromePath);
+        
+        // Chrome version is in a file in the same directory (Windows installs)
+        Path chromeDir = chromeExe.toPath().getParent();
+        Path versionFile = chromeDir.resolve("version");
+        
+        if (Files.exists(versionFile)) {
+            try {
+                String content = Files.readString(versionFile);
+                // Extract version number (format: 120.0.6099.109)
+                Matcher matcher = CHROME_VERSION_PATTERN.matcher(content);
+                if (matcher.find()) {
+                    return matcher.group(1);
+                }
+            } catch (IOException e) {
+                // Try alternative method
+            }
+        }
+        
+        // Chrome stores version in folder name like "120.0.6099.109"
+        String[] files = chromeDir.toFile().list();
+        if (files != null) {
+            for (String file : files) {
+                Matcher matcher = VERSION_DIR_PATTERN.matcher(file);
+                if (matcher.find()) {
+                    return matcher.group(1);
+                }
+            }
+        }
+        
+        // Linux/macOS installs have neither, so ask the binary itself
+        if (!IS_WINDOWS) {
+            try {
+                Process process = new ProcessBuilder(chromePath, "--version").redirectErrorStream(true).start();
+                try (java.io.BufferedReader reader = new java.io.BufferedReader(
+                        new java.io.InputStreamReader(process.getInputStream()))) {
+                    String versionLine = reader.readLine();
+                    process.waitFor();
+                    if (versionLine != null) {
+                        Matcher matcher = CHROME_VERSION_PATTERN.matcher(versionLine);
                         if (matcher.find()) {
                             return matcher.group(1);
                         }
-                    } catch (IOException e) {
-                        // Try alternative method
                     }
                 }
-                
-                // Alternative: Try to get version from chrome.exe properties
-                // For now, we'll use a simpler approach - check the directory name
-                // Chrome stores version in folder name like "120.0.6099.109"
-                try {
-                    String[] files = chromeDir.toFile().list();
-                    if (files != null) {
-                        for (String file : files) {
-                            Pattern pattern = Pattern.compile("^(\\d+\\.\\d+\\.\\d+\\.\\d+)$");
-                            Matcher matcher = pattern.matcher(file);
-                            if (matcher.find()) {
-                                return matcher.group(1);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    // Continue to next method
-                }
+            } catch (IOException e) {
+                // Version stays unknown
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
         
         return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,258 @@
+package com.scm.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of WebDriver sessions.
+ * At most {@code maxSize} sessions exist at once; callers block in {@link #acquire()}
+ * until a slot frees up or the acquire timeout expires.
+ * <p>
+ * When {@code maxUsesPerSession} is greater than 1, released sessions are reset
+ * (tabs, cookies, storage of every visited origin) and kept warm for the next scenario instead of quit.
+ * A session is recycled once it has served {@code maxUsesPerSession} scenarios or its
+ * JS heap grows past {@code maxHeapMb}.
+ */
+public class DriverPool {
+    private final int maxSize;
+    private final Duration acquireTimeout;
+    private final Supplier<WebDriver> factory;
+    private final int maxUsesPerSession;
+    private final long maxHeapBytes;
+    private final Semaphore slots;
+    private final Set<WebDriver> sessions = ConcurrentHashMap.newKeySet();
+    private final Deque<WebDriver> idle = new ConcurrentLinkedDeque<>();
+    private final Map<WebDriver, Integer> uses = new ConcurrentHashMap<>();
+
+    public DriverPool(int maxSize, Duration acquireTimeout, Supplier<WebDriver> factory) {
+        this(maxSize, acquireTimeout, factory, 1, 0);
+    }
+
+    public DriverPool(int maxSize, Duration acquireTimeout, Supplier<WebDriver> factory,
+                      int maxUsesPerSession, long maxHeapMb) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Driver pool size must be at least 1, got: " + maxSize);
+        }
+        if (maxUsesPerSession < 1) {
+            throw new IllegalArgumentException("Max uses per session must be at least 1, got: " + maxUsesPerSession);
+        }
+        this.maxSize = maxSize;
+        this.acquireTimeout = acquireTimeout;
+        this.factory = factory;
+        this.maxUsesPerSession = maxUsesPerSession;
+        this.maxHeapBytes = maxHeapMb * 1024 * 1024;
+        this.slots = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Takes a slot and hands out a warm idle session, or creates a new one if none is idle.
+     * @throws RuntimeException if no slot frees up within the acquire timeout
+     */
+    public WebDriver acquire() {
+        try {
+            if (!slots.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Timed out after " + acquireTimeout.toSeconds()
+                        + "s waiting for a WebDriver session (pool size: " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a WebDriver session", e);
+        }
+
+        WebDriver warm = idle.pollFirst();
+        if (warm != null) {
+            return warm;
+        }
+
+        try {
+            WebDriver driver = factory.get();
+            sessions.add(driver);
+            return driver;
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a session to the pool. Reusable sessions are reset and parked as idle;
+     * all others are quit and their slot freed.
+     */
+    public void release(WebDriver driver) {
+        if (driver == null || !sessions.contains(driver)) {
+            return;
+        }
+        if (maxUsesPerSession == 1) {
+            discard(driver);
+            return;
+        }
+
+        int used = uses.merge(driver, 1, Integer::sum);
+        if (used >= maxUsesPerSession) {
+            System.out.println("[DriverPool] Recycling session after " + used + " scenarios");
+            discard(driver);
+            return;
+        }
+        if (maxHeapBytes > 0) {
+            long heap = usedJsHeap(driver);
+            if (heap > maxHeapBytes) {
+                System.out.println("[DriverPool] Recycling session, JS heap at " + (heap / (1024 * 1024)) + " MB");
+                discard(driver);
+                return;
+            }
+        }
+        if (!resetSession(driver)) {
+            discard(driver);
+            return;
+        }
+
+        // Park before freeing the slot so a waiting thread finds the warm session
+        idle.addFirst(driver);
+        slots.release();
+    }
+
+    /**
+     * Quits a session and frees its slot.
+     */
+    public void discard(WebDriver driver) {
+        if (driver == null || !sessions.remove(driver)) {
+            return;
+        }
+        uses.remove(driver);
+        // Idle sessions do not hold a slot, so only release one for sessions that were checked out
+        boolean wasIdle = idle.remove(driver);
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            System.err.println("[DriverPool] ⚠ Failed to quit session: " + e.getMessage());
+        } finally {
+            if (!wasIdle) {
+                slots.release();
+            }
+        }
+    }
+
+    /**
+     * Quits every session still owned by the pool (e.g. from a JVM shutdown hook).
+     */
+    public void shutdown() {
+        for (WebDriver driver : sessions) {
+            discard(driver);
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Brings a session back to a blank state: extra tabs closed, cookies and the storage of every origin the
+     * scenario visited cleared, and the remaining tab parked on about:blank.
+     * @return false if the session could not be reset and should be thrown away
+     */
+    private static boolean resetSession(WebDriver driver) {
+        try {
+            // Walk every tab (the first one last) to learn which origins it visited before closing it.
+            // The first tab is kept because DevTools setup (blocked URLs, record/replay) is bound to it.
+            List<String> handles = new ArrayList<>(driver.getWindowHandles());
+            Set<String> origins = new LinkedHashSet<>();
+            for (int i = handles.size() - 1; i >= 0; i--) {
+                driver.switchTo().window(handles.get(i));
+                origins.addAll(visitedOrigins(driver));
+                if (i > 0) {
+                    driver.close();
+                }
+            }
+
+            // Without CDP only the current page's origin can be cleared; sessionStorage has no CDP equivalent
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            driver.manage().deleteAllCookies();
+            if (driver instanceof HasCdp cdp) {
+                // deleteAllCookies only covers the current domain; CDP clears the whole cookie jar
+                cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+                for (String origin : origins) {
+                    cdp.executeCdpCommand("Storage.clearDataForOrigin", Map.of(
+                            "origin", origin,
+                            "storageTypes", "local_storage,indexeddb,websql,cache_storage,service_workers,file_systems"));
+                }
+            }
+            driver.get("about:blank");
+            return true;
+        } catch (Exception e) {
+            System.err.println("[DriverPool] ⚠ Could not reset session, discarding it: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return the http(s) origins in the current tab's back/forward history (Chrome and Edge),
+     *         or just the current page's origin for other browsers
+     */
+    private static Set<String> visitedOrigins(WebDriver driver) {
+        List<String> urls = new ArrayList<>();
+        if (driver instanceof HasCdp cdp) {
+            Object entries = cdp.executeCdpCommand("Page.getNavigationHistory", Map.of()).get("entries");
+            if (entries instanceof List<?> list) {
+                for (Object entry : list) {
+                    if (entry instanceof Map<?, ?> map && map.get("url") instanceof String url) {
+                        urls.add(url);
+                    }
+                }
+            }
+        } else {
+            urls.add(driver.getCurrentUrl());
+        }
+        Set<String> origins = new LinkedHashSet<>();
+        for (String url : urls) {
+            origin(url).ifPresent(origins::add);
+        }
+        return origins;
+    }
+
+    /**
+     * @return {@code scheme://host[:port]} as browsers spell the origin, for http(s) URLs only
+     */
+    private static Optional<String> origin(String url) {
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return Optional.empty();
+            }
+            return Optional.of(scheme.toLowerCase() + "://" + uri.getHost().toLowerCase()
+                    + (uri.getPort() < 0 ? "" : ":" + uri.getPort()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return used JS heap of the current page in bytes, or 0 if the browser does not expose it
+     */
+    private static long usedJsHeap(WebDriver driver) {
+        try {
+            Object heap = ((JavascriptExecutor) driver).executeScript(
+                    "return window.performance && performance.memory ? performance.memory.usedJSHeapSize : 0;");
+            return heap instanceof Number ? ((Number) heap).longValue() : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.scm.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * On-disk cache of browser/driver resolution results.
+ * Entries are keyed by browser name, browser binary path and the binary's last-modified time,
+ * so a browser upgrade invalidates its entry automatically. A cache hit lets
+ * {@link DriverManager} skip version probes, subprocesses and WebDriverManager network calls.
+ * Only resolutions that found a driver binary are written to disk. One that did not (WebDriverManager
+ * failed or was skipped, and the driver comes from the system PATH) is kept in memory for the rest of
+ * the run only, so later sessions do not retry it but the next run does.
+ * <p>
+ * Location: {@code -Ddriver.cache.dir} (default {@code ~/.cache/scm-selenium}).
+ * Set {@code -Ddriver.cache=false} to bypass the cache.
+ */
+public class DriverResolutionCache {
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("driver.cache", "true"));
+    private static final Path CACHE_FILE = Paths.get(
+            System.getProperty("driver.cache.dir",
+                    System.getProperty("user.home") + File.separator + ".cache" + File.separator + "scm-selenium"),
+            "driver-resolution.properties");
+
+    private static Properties entries;
+    // Resolutions that found no driver binary, keyed like the entries; never written to disk
+    private static final Map<String, Resolution> withoutDriver = new HashMap<>();
+
+    /**
+     * Resolved browser version, driver binary path and driver version.
+     * Any field may be null when it could not be determined.
+     */
+    public record Resolution(String browserVersion, String driverPath, String driverVersion) {
+    }
+
+    /**
+     * @param browser    browser name, e.g. "chrome"
+     * @param binaryPath browser binary that was found, or null if none was found
+     * @return the cached resolution, or null on a miss or if the cached driver no longer exists
+     */
+    public static synchronized Resolution lookup(String browser, String binaryPath) {
+        if (!ENABLED) {
+            return null;
+        }
+        String key = key(browser, binaryPath);
+        Properties props = load();
+        // Older caches may hold a failed resolution with an empty driver path
+        String driverPath = emptyToNull(props.getProperty(key + ".driverPath"));
+        if (driverPath == null || !new File(driverPath).isFile()) {
+            return withoutDriver.get(key);
+        }
+        return new Resolution(
+                emptyToNull(props.getProperty(key + ".browserVersion")),
+                driverPath,
+                emptyToNull(props.getProperty(key + ".driverVersion")));
+    }
+
+    /**
+     * Caches a resolution; one without a driver path only until the JVM exits.
+     */
+    public static synchronized void store(String browser, String binaryPath, Resolution resolution) {
+        if (!ENABLED) {
+            return;
+        }
+        String key = key(browser, binaryPath);
+        if (resolution.driverPath() == null) {
+            withoutDriver.put(key, resolution);
+            return;
+        }
+        Properties props = load();
+        props.setProperty(key + ".browserVersion", nullToEmpty(resolution.browserVersion()));
+        props.setProperty(key + ".driverPath", nullToEmpty(resolution.driverPath()));
+        props.setProperty(key + ".driverVersion", nullToEmpty(resolution.driverVersion()));
+
+        try {
+            Files.createDirectories(CACHE_FILE.getParent());
+            // Write to a temp file and move it into place so concurrent JVMs never read a partial file
+            Path tmp = Files.createTempFile(CACHE_FILE.getParent(), "driver-resolution", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "Driver resolution cache - safe to delete");
+            }
+            Files.move(tmp, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[DriverResolutionCache] ⚠ Could not write " + CACHE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static Properties load() {
+        if (entries == null) {
+            entries = new Properties();
+            if (Files.isRegularFile(CACHE_FILE)) {
+                try (InputStream in = Files.newInputStream(CACHE_FILE)) {
+                    entries.load(in);
+                } catch (IOException e) {
+                    System.err.println("[DriverResolutionCache] ⚠ Could not read " + CACHE_FILE + ": " + e.getMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static String key(String browser, String binaryPath) {
+        if (binaryPath == null) {
+            return browser + "|<not found>|0";
+        }
+        return browser + "|" + binaryPath + "|" + new File(binaryPath).lastModified();
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
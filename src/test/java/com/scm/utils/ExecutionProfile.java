@@ -0,0 +1,81 @@
+package com.scm.utils;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.PageLoadStrategy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Named browser execution profiles, selected with {@code -Dprofile=<name>} (default: {@code default}).
+ * <ul>
+ *   <li>{@code default} - headed, maximized window, normal page load, nothing blocked</li>
+ *   <li>{@code ci} - headless, fixed 1920x1080 window, normal page load, nothing blocked</li>
+ *   <li>{@code fast} - headless, fixed 1920x1080 window, eager page load, images/media/fonts/analytics blocked</li>
+ * </ul>
+ */
+public enum ExecutionProfile {
+    DEFAULT(false, null, PageLoadStrategy.NORMAL, List.of()),
+    CI(true, new Dimension(1920, 1080), PageLoadStrategy.NORMAL, List.of()),
+    FAST(true, new Dimension(1920, 1080), PageLoadStrategy.EAGER, List.of(
+            // Images (trailing * also matches cache-busting query strings)
+            "*.png*", "*.jpg*", "*.jpeg*", "*.gif*", "*.webp*", "*.svg*", "*.ico*",
+            // Media
+            "*.mp4*", "*.webm*", "*.ogg*", "*.mp3*", "*.wav*",
+            // Fonts
+            "*.woff*", "*.ttf*", "*.otf*", "*fonts.googleapis.com*", "*fonts.gstatic.com*",
+            // Analytics and trackers
+            "*google-analytics.com*", "*googletagmanager.com*", "*doubleclick.net*",
+            "*googlesyndication.com*", "*facebook.net*", "*hotjar.com*", "*segment.io*",
+            "*vercel-insights.com*", "*/_vercel/insights/*"));
+
+    private final boolean headless;
+    private final Dimension windowSize;
+    private final PageLoadStrategy pageLoadStrategy;
+    private final List<String> blockedUrlPatterns;
+
+    ExecutionProfile(boolean headless, Dimension windowSize, PageLoadStrategy pageLoadStrategy,
+                     List<String> blockedUrlPatterns) {
+        this.headless = headless;
+        this.windowSize = windowSize;
+        this.pageLoadStrategy = pageLoadStrategy;
+        this.blockedUrlPatterns = blockedUrlPatterns;
+    }
+
+    /**
+     * @return the profile named by {@code -Dprofile}
+     * @throws IllegalArgumentException if the name does not match a profile
+     */
+    public static ExecutionProfile current() {
+        String name = System.getProperty("profile", "default").trim();
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Execution profile not supported: " + name + " (expected one of: "
+                    + String.join(", ", Arrays.stream(values()).map(p -> p.name().toLowerCase(Locale.ROOT)).toList()) + ")", e);
+        }
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * @return the fixed window size, or null to maximize the window
+     */
+    public Dimension getWindowSize() {
+        return windowSize;
+    }
+
+    public PageLoadStrategy getPageLoadStrategy() {
+        return pageLoadStrategy;
+    }
+
+    /**
+     * @return URL patterns (DevTools {@code Network.setBlockedURLs} syntax) the browser must not load
+     */
+    public List<String> getBlockedUrlPatterns() {
+        return blockedUrlPatterns;
+    }
+}
@@ -0,0 +1,169 @@
+package com.scm.utils;
+
+import io.cucumber.core.cli.Main;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reruns the scenarios that failed in the main run, so a transient failure does not mean rerunning the suite.
+ * Once the JUnit Platform test plan has finished, the entries of {@code target/cucumber-reports/rerun.txt}
+ * are run again with the Cucumber CLI, on new browser sessions, for up to {@code -Drerun.attempts} passes
+ * (default 1; 0 turns reruns off). Each pass runs only what is still failing.
+ * <p>
+ * {@code -Drerun.budget} (default 5) caps the total number of scenario reruns: a pass that would exceed the
+ * remaining budget is not started, since that many failures point at a real breakage rather than flakiness.
+ * <p>
+ * The results of every pass ({@code rerun-<n>.json}) are merged into {@code cucumber.json} by
+ * {@link RerunMerger}, and the fancy report is regenerated. The other reports and the JUnit results are those
+ * of the main run, so the build still fails on the first failure. Registered with the JUnit Platform launcher
+ * through {@code META-INF/services}.
+ */
+public class FailedScenarioRerun implements TestExecutionListener {
+    private static final int ATTEMPTS = Integer.getInteger("rerun.attempts", 1);
+    private static final int BUDGET = Integer.getInteger("rerun.budget", 5);
+    private static final Path REPORTS = Paths.get("target/cucumber-reports");
+    private static final Path RERUN_FILE = REPORTS.resolve("rerun.txt");
+    private static final Path JSON_REPORT = REPORTS.resolve("cucumber.json");
+
+    private long planStarted;
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        planStarted = System.currentTimeMillis();
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        // A rerun file older than this plan belongs to another run (e.g. a plan without the Cucumber suite)
+        if (ATTEMPTS <= 0 || !isFresh(RERUN_FILE) || !isFresh(JSON_REPORT)) {
+            return;
+        }
+        int initial = scenarios(RERUN_FILE).size();
+        if (initial == 0) {
+            return;
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        System.setProperty("cucumber.publish.quiet", "true");
+
+        List<Path> reports = rerun(REPORTS, RERUN_FILE, ATTEMPTS, BUDGET, (failing, json, rerun) -> {
+            DriverManager.quitAll();
+            Main.run(new String[] {
+                    "--glue", "com.scm.steps",
+                    "--plugin", "pretty",
+                    "--plugin", "json:" + json,
+                    "--plugin", "rerun:" + rerun,
+                    "--plugin", TimingRecorder.class.getName(),
+                    "--monochrome",
+                    "@" + failing
+            }, classLoader);
+        });
+        DriverManager.quitAll();
+        if (reports.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, List<RerunMerger.Attempt>> history = RerunMerger.merge(JSON_REPORT, reports);
+            if (history.isEmpty()) {
+                System.err.println("[FailedScenarioRerun] ⚠ None of the rerun scenarios is in " + JSON_REPORT
+                        + "; left it as it is");
+                return;
+            }
+            long flaky = history.values().stream()
+                    .filter(attempts -> "passed".equals(attempts.get(attempts.size() - 1).status()))
+                    .count();
+            System.out.println("[FailedScenarioRerun] ✓ " + flaky + " of " + initial
+                    + " failed scenarios passed on rerun (flaky), " + (initial - flaky) + " still failing; merged into "
+                    + JSON_REPORT);
+        } catch (IOException e) {
+            System.err.println("[FailedScenarioRerun] ⚠ Could not merge rerun results into " + JSON_REPORT + ": "
+                    + e.getMessage());
+            return;
+        }
+        ReportGeneratorRunner.generateReport();
+    }
+
+    /**
+     * One rerun pass: runs the scenarios listed in {@code failing}, writing its JSON report to {@code json}
+     * and the scenarios that still fail to {@code rerun}.
+     */
+    @FunctionalInterface
+    interface Pass {
+        void run(Path failing, Path json, Path rerun);
+    }
+
+    /**
+     * Runs passes (numbered from 2, the main run being 1) while scenarios still fail, up to {@code attempts}
+     * passes and {@code budget} scenario reruns in total; a pass that would exceed the budget is not started.
+     * @return the JSON reports of the passes that ran, in order
+     */
+    static List<Path> rerun(Path reports, Path rerunFile, int attempts, int budget, Pass pass) {
+        Path failing = rerunFile;
+        Set<String> scenarios = scenarios(failing);
+        List<Path> jsons = new ArrayList<>();
+        for (int attempt = 2; attempt <= attempts + 1 && !scenarios.isEmpty(); attempt++) {
+            if (scenarios.size() > budget) {
+                System.out.println("[FailedScenarioRerun] ⚠ Not rerunning " + scenarios.size()
+                        + " failed scenarios: over the remaining budget of " + budget + " (-Drerun.budget)");
+                break;
+            }
+            budget -= scenarios.size();
+            Path json = reports.resolve("rerun-" + attempt + ".json");
+            Path rerun = reports.resolve("rerun-" + attempt + ".txt");
+            System.out.println("[FailedScenarioRerun] Attempt " + attempt + ": rerunning " + scenarios.size()
+                    + " failed scenarios on new browser sessions");
+            pass.run(failing, json, rerun);
+            jsons.add(json);
+            failing = rerun;
+            scenarios = scenarios(failing);
+        }
+        return jsons;
+    }
+
+    private boolean isFresh(Path file) {
+        try {
+            return Files.isRegularFile(file) && Files.getLastModifiedTime(file).toMillis() >= planStarted;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the scenario keys in a rerun file, whose lines look like {@code classpath:features/x.feature:7:14}
+     */
+    static Set<String> scenarios(Path rerunFile) {
+        Set<String> keys = new LinkedHashSet<>();
+        List<String> lines;
+        try {
+            lines = Files.isRegularFile(rerunFile) ? Files.readAllLines(rerunFile) : List.of();
+        } catch (IOException e) {
+            System.err.println("[FailedScenarioRerun] ⚠ Could not read " + rerunFile + ": " + e.getMessage());
+            return keys;
+        }
+        for (String line : lines) {
+            for (String entry : line.trim().split("\\s+")) {
+                int featureEnd = entry.indexOf(".feature:");
+                if (featureEnd < 0) {
+                    continue;
+                }
+                String uri = entry.substring(0, featureEnd + ".feature".length());
+                for (String scenarioLine : entry.substring(featureEnd + ".feature:".length()).split(":")) {
+                    if (scenarioLine.matches("\\d+")) {
+                        keys.add(TimingHistory.key(uri, Integer.parseInt(scenarioLine)));
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,95 @@
+package com.scm.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.scm.utils.RerunMergerTest.CHECKOUT;
+import static com.scm.utils.RerunMergerTest.SEARCH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The rerun passes of {@link FailedScenarioRerun}, with a fake pass that replays the {@code reports/rerun}
+ * fixtures instead of running Cucumber: three scenarios fail in the main run (one of them an outline row),
+ * one still fails on the first rerun and none on the second.
+ */
+class FailedScenarioRerunTest {
+    // What each pass leaves in its rerun file
+    private static final Map<String, String> STILL_FAILING = Map.of(
+            "rerun-2.txt", CHECKOUT + ":18\n",
+            "rerun-3.txt", "");
+
+    @TempDir
+    Path dir;
+
+    private Path rerunFile;
+    private final List<Path> passes = new ArrayList<>();
+
+    @BeforeEach
+    void copyFixtures() throws IOException {
+        rerunFile = RerunMergerTest.copyFixture(dir, "rerun.txt");
+    }
+
+    @Test
+    void readsEveryScenarioOfARerunFile() {
+        assertEquals(List.of(CHECKOUT + ":6", CHECKOUT + ":18", SEARCH + ":3"),
+                List.copyOf(FailedScenarioRerun.scenarios(rerunFile)));
+        assertTrue(FailedScenarioRerun.scenarios(dir.resolve("missing.txt")).isEmpty());
+    }
+
+    @Test
+    void rerunsWhatStillFailsAndMergesEveryPass() throws IOException {
+        Path report = RerunMergerTest.copyFixture(dir, "cucumber.json");
+
+        List<Path> reports = FailedScenarioRerun.rerun(dir, rerunFile, 3, 5, this::replay);
+
+        assertEquals(List.of(dir.resolve("rerun-2.json"), dir.resolve("rerun-3.json")), reports);
+        // Each pass reruns what the previous one left failing; nothing is left for a third
+        assertEquals(List.of(rerunFile, dir.resolve("rerun-2.txt")), passes);
+        Map<String, List<RerunMerger.Attempt>> history = RerunMerger.merge(report, reports);
+        assertEquals("passed", history.get(CHECKOUT + ":18").get(2).status());
+    }
+
+    @Test
+    void startsNoPassOverTheBudget() {
+        List<Path> reports = FailedScenarioRerun.rerun(dir, rerunFile, 3, 2, this::replay);
+
+        assertTrue(reports.isEmpty());
+        assertTrue(passes.isEmpty());
+    }
+
+    @Test
+    void stopsWhenTheNextPassWouldExceedTheRemainingBudget() {
+        // The first pass uses all 3 reruns, the outline row that still fails would be the 4th
+        List<Path> reports = FailedScenarioRerun.rerun(dir, rerunFile, 3, 3, this::replay);
+
+        assertEquals(List.of(dir.resolve("rerun-2.json")), reports);
+        assertEquals(List.of(rerunFile), passes);
+    }
+
+    @Test
+    void stopsAfterTheLastAttempt() {
+        List<Path> reports = FailedScenarioRerun.rerun(dir, rerunFile, 1, 5, this::replay);
+
+        assertEquals(List.of(dir.resolve("rerun-2.json")), reports);
+    }
+
+    private void replay(Path failing, Path json, Path rerun) {
+        passes.add(failing);
+        try {
+            RerunMergerTest.copyFixture(dir, json.getFileName().toString());
+            Files.writeString(rerun, STILL_FAILING.get(rerun.getFileName().toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.scm.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for the sites under test, so the suite can run offline and with repeatable timings.
+ * Serves snapshots of the pages the steps use from {@code src/test/resources/fixtures/<site>/} and answers
+ * Google searches and suggestions and the Ermishoe and IMDS login forms.
+ * <p>
+ * Step classes get their start URL from {@link #baseUrl}: {@code -Dbase.url.<site>} wins, otherwise
+ * {@code -Dfixtures=true} starts this server (once per JVM, on {@code -Dfixture.port}, default any free port)
+ * and points every site at it; without either the live site is used.
+ * <p>
+ * Network conditions are injected per route, matched by the longest path prefix:
+ * <ul>
+ *   <li>{@code -Dfixture.latency=100} - milliseconds before the response starts, for every route</li>
+ *   <li>{@code -Dfixture.latency./google/search=800} - the same for one route</li>
+ *   <li>{@code -Dfixture.bandwidth=256} and {@code -Dfixture.bandwidth./google/search=64} - response body
+ *       throughput in KB/s</li>
+ * </ul>
+ */
+public class FixtureServer {
+    private static final String RESOURCE_ROOT = "fixtures";
+    private static final String LATENCY = "fixture.latency";
+    private static final String BANDWIDTH = "fixture.bandwidth";
+    // Throttled bodies are written in this many chunks per second
+    private static final int CHUNKS_PER_SECOND = 10;
+    private static final int RESULTS_PER_PAGE = 10;
+
+    private static final List<String> RESULT_TITLES = List.of(
+            "%s - Wikipedia",
+            "What is %s? A beginner's guide",
+            "%s tutorial for beginners",
+            "%s | Official documentation",
+            "Newest '%s' questions - Stack Overflow",
+            "Top 10 %s tips and tricks",
+            "%s explained in 5 minutes - YouTube",
+            "Learn %s - Free online course",
+            "%s: news and updates",
+            "Getting started with %s");
+    private static final List<String> SUGGESTION_SUFFIXES = List.of("", " tutorial", " download", " documentation", " examples");
+
+    private static HttpServer server;
+    private static String origin;
+    private static Map<String, Long> latencyMillis;
+    private static Map<String, Long> bandwidthKbps;
+
+    private record Response(int status, String contentType, byte[] body, String location) {
+        static Response redirect(String location) {
+            return new Response(303, null, new byte[0], location);
+        }
+    }
+
+    /**
+     * @param site    fixture directory and path prefix, e.g. {@code google}
+     * @param liveUrl the real site, used when fixtures are off, e.g. {@code https://www.google.com}
+     * @return where the steps should navigate for {@code site}, without a trailing slash
+     */
+    public static String baseUrl(String site, String liveUrl) {
+        String override = System.getProperty("base.url." + site);
+        if (override != null && !override.isBlank()) {
+            return stripTrailingSlash(override.trim());
+        }
+        if (Boolean.getBoolean("fixtures")) {
+            return start() + "/" + site;
+        }
+        return liveUrl;
+    }
+
+    /**
+     * Starts the server if it is not running yet.
+     * @return its origin, e.g. {@code http://127.0.0.1:53211}
+     */
+    public static synchronized String start() {
+        if (server != null) {
+            return origin;
+        }
+        latencyMillis = routeSettings(LATENCY);
+        bandwidthKbps = routeSettings(BANDWIDTH);
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.getInteger("fixture.port", 0)), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the fixture server", e);
+        }
+        server.createContext("/", FixtureServer::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        origin = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        Runtime.getRuntime().addShutdownHook(new Thread(FixtureServer::stop));
+        System.out.println("[FixtureServer] ✓ Serving fixtures at " + origin
+                + (latencyMillis.isEmpty() ? "" : ", latency " + latencyMillis)
+                + (bandwidthKbps.isEmpty() ? "" : ", bandwidth (KB/s) " + bandwidthKbps));
+        return origin;
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            Response response;
+            try {
+                response = route(exchange, path);
+            } catch (RuntimeException e) {
+                System.err.println("[FixtureServer] ⚠ " + exchange.getRequestMethod() + " " + path + " failed: " + e.getMessage());
+                response = new Response(500, "text/plain", String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8), null);
+            }
+            sleep(setting(latencyMillis, path));
+
+            if (response.contentType() != null) {
+                exchange.getResponseHeaders().set("Content-Type", response.contentType());
+            }
+            if (response.location() != null) {
+                exchange.getResponseHeaders().set("Location", response.location());
+            }
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            // Resource Timing only reports sizes for cross-origin requests that opt in
+            exchange.getResponseHeaders().set("Timing-Allow-Origin", "*");
+            byte[] body = response.body();
+            boolean head = "HEAD".equals(exchange.getRequestMethod());
+            exchange.sendResponseHeaders(response.status(), head || body.length == 0 ? -1 : body.length);
+            if (!head && body.length > 0) {
+                write(exchange.getResponseBody(), body, setting(bandwidthKbps, path));
+            }
+        }
+    }
+
+    private static Response route(HttpExchange exchange, String path) throws IOException {
+        boolean post = "POST".equals(exchange.getRequestMethod());
+        switch (path) {
+            case "/google", "/google/":
+                return page("google/index.html", Map.of());
+            case "/google/search": {
+                String query = query(exchange).getOrDefault("q", "").trim();
+                if (query.isEmpty()) {
+                    return Response.redirect("/google/");
+                }
+                return page("google/search.html", Map.of(
+                        "query", escape(query),
+                        "stats", "About " + String.format("%,d", 1_000_000 + Math.floorMod(query.hashCode(), 9_000_000))
+                                + " results (0.31 seconds)",
+                        "results", results(query)));
+            }
+            case "/google/complete/search":
+                return json(suggestions(query(exchange).getOrDefault("q", "").trim()));
+            case "/ermishoe", "/ermishoe/":
+                return page("ermishoe/index.html", Map.of());
+            case "/ermishoe/login": {
+                if (!post) {
+                    return page("ermishoe/login.html", Map.of("error", ""));
+                }
+                Map<String, String> form = form(exchange);
+                String email = form.getOrDefault("email", "");
+                if (email.matches("[^@\\s]+@[^@\\s]+\\.[^@\\s]+") && !form.getOrDefault("password", "").isEmpty()) {
+                    return Response.redirect("/ermishoe/dashboard");
+                }
+                return page("ermishoe/login.html", Map.of("error", "Invalid email or password"));
+            }
+            case "/ermishoe/dashboard":
+                return page("ermishoe/dashboard.html", Map.of());
+            case "/imds/imds/fs/fs000cams.html":
+                return page("imds/imds/fs/fs000cams.html", Map.of("error", ""));
+            case "/imds/imds/fs/logon": {
+                if (post && !form(exchange).getOrDefault("TerminalId", "").isBlank()) {
+                    return Response.redirect("/imds/imds/fs/fs100home.html");
+                }
+                return page("imds/imds/fs/fs000cams.html", Map.of("error", "Terminal ID is required"));
+            }
+            default:
+                return staticFile(path);
+        }
+    }
+
+    private static Response staticFile(String path) {
+        if (path.contains("..") || path.endsWith("/")) {
+            return notFound(path);
+        }
+        String resource = path.substring(1);
+        if (resource.endsWith(".html")) {
+            return page(resource, Map.of());
+        }
+        byte[] body = read(resource);
+        return body == null ? notFound(path) : new Response(200, contentType(resource), body, null);
+    }
+
+    /**
+     * Renders a snapshot, replacing {@code ${base}} with the site's path prefix and {@code ${name}} with
+     * the given values (already escaped).
+     */
+    private static Response page(String resource, Map<String, String> values) {
+        byte[] template = read(resource);
+        if (template == null) {
+            return notFound("/" + resource);
+        }
+        String html = new String(template, StandardCharsets.UTF_8)
+                .replace("${base}", "/" + resource.substring(0, resource.indexOf('/')));
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            html = html.replace("${" + value.getKey() + "}", value.getValue());
+        }
+        return new Response(200, "text/html; charset=utf-8", html.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    private static String results(String query) {
+        StringBuilder html = new StringBuilder();
+        String slug = query.toLowerCase().replaceAll("[^a-z0-9]+", "-");
+        for (int i = 0; i < RESULTS_PER_PAGE; i++) {
+            String title = escape(String.format(RESULT_TITLES.get(i), query));
+            String url = "https://example.org/" + i + "/" + slug;
+            html.append("      <div class=\"g\"><a href=\"").append(url).append("\"><cite>").append(url)
+                    .append("</cite><h3>").append(title).append("</h3></a>")
+                    .append("<div class=\"snippet\">").append(title).append(". Everything you need to know about ")
+                    .append(escape(query)).append(".</div></div>\n");
+        }
+        return html.toString();
+    }
+
+    private static Response json(List<String> suggestions) {
+        StringBuilder json = new StringBuilder("[");
+        for (String suggestion : suggestions) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(suggestion.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return new Response(200, "application/json", json.append(']').toString().getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    private static List<String> suggestions(String query) {
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        return SUGGESTION_SUFFIXES.stream().map(suffix -> query.toLowerCase() + suffix).toList();
+    }
+
+    private static Response notFound(String path) {
+        return new Response(404, "text/plain", ("Not found: " + path).getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        return decode(exchange.getRequestURI().getRawQuery());
+    }
+
+    private static Map<String, String> form(HttpExchange exchange) throws IOException {
+        return decode(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> decode(String encoded) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return values;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            values.putIfAbsent(name, eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static byte[] read(String resource) {
+        try (InputStream in = FixtureServer.class.getClassLoader().getResourceAsStream(RESOURCE_ROOT + "/" + resource)) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String contentType(String resource) {
+        if (resource.endsWith(".css")) {
+            return "text/css; charset=utf-8";
+        }
+        if (resource.endsWith(".js")) {
+            return "text/javascript; charset=utf-8";
+        }
+        if (resource.endsWith(".json")) {
+            return "application/json";
+        }
+        if (resource.endsWith(".png")) {
+            return "image/png";
+        }
+        return "application/octet-stream";
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static void write(OutputStream out, byte[] body, long kbPerSecond) throws IOException {
+        if (kbPerSecond <= 0) {
+            out.write(body);
+            return;
+        }
+        int chunk = (int) Math.max(1, kbPerSecond * 1024 / CHUNKS_PER_SECOND);
+        for (int offset = 0; offset < body.length; offset += chunk) {
+            if (offset > 0) {
+                sleep(1000 / CHUNKS_PER_SECOND);
+            }
+            out.write(body, offset, Math.min(chunk, body.length - offset));
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads {@code -D<prefix>} (key "") and every {@code -D<prefix>.<route>}.
+     */
+    private static Map<String, Long> routeSettings(String prefix) {
+        Map<String, Long> settings = new LinkedHashMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (!name.equals(prefix) && !name.startsWith(prefix + ".")) {
+                continue;
+            }
+            String route = name.substring(prefix.length()).replaceFirst("^\\.", "");
+            try {
+                settings.put(route, Long.parseLong(System.getProperty(name).trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("[FixtureServer] ⚠ Ignoring -D" + name + ": not a number");
+            }
+        }
+        return settings;
+    }
+
+    private static long setting(Map<String, Long> settings, String path) {
+        String match = null;
+        for (String route : settings.keySet()) {
+            if (path.startsWith(route) && (match == null || route.length() > match.length())) {
+                match = route;
+            }
+        }
+        return match == null ? 0 : settings.get(match);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk cache of rendered feature cards, keyed by a hash of each feature's raw JSON bytes.
+ * Each entry is a rendered HTML fragment ({@code <hash>.html}) plus a small summary
+ * ({@code <hash>.json}) with what the report model needs from that feature, so an unchanged
+ * feature is neither parsed nor rendered again.
+ * <p>
+ * Lives in {@code .fragments/} next to the HTML report. Disable with {@code -Dreport.fragments=false}.
+ */
+public class FragmentCache {
+    /**
+     * Part of every key. Bump whenever feature card markup or the summary layout changes,
+     * so stale fragments are not reused.
+     */
+    static final String RENDER_VERSION = "4";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path directory;
+    private final Set<String> used = ConcurrentHashMap.newKeySet();
+    private int hits = 0;
+    private int misses = 0;
+
+    public FragmentCache(Path reportDirectory) {
+        this.directory = reportDirectory.resolve(".fragments");
+    }
+
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("report.fragments", "true"));
+    }
+
+    /**
+     * Hashes bytes {@code [start, end)} of the JSON file, i.e. one feature object as written by Cucumber.
+     */
+    public String hash(File jsonFile, long start, long end) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(RENDER_VERSION.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(jsonFile.toPath())) {
+            long position = start;
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                digest.update(buffer);
+                position += read;
+            }
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        used.add(hash);
+        return hash;
+    }
+
+    /**
+     * @return the cached summary, or null if this feature has not been rendered before
+     */
+    public JsonNode loadSummary(String hash) {
+        Path summary = directory.resolve(hash + ".json");
+        if (!Files.isRegularFile(summary) || !Files.isRegularFile(directory.resolve(hash + ".html"))) {
+            return null;
+        }
+        try {
+            return MAPPER.readTree(summary.toFile());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public String loadFragment(String hash) throws IOException {
+        return Files.readString(directory.resolve(hash + ".html"), StandardCharsets.UTF_8);
+    }
+
+    public void saveSummary(String hash, JsonNode summary) throws IOException {
+        Files.createDirectories(directory);
+        MAPPER.writeValue(directory.resolve(hash + ".json").toFile(), summary);
+    }
+
+    /**
+     * Called from render threads, hence unchecked.
+     */
+    public void saveFragment(String hash, String html) {
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve(hash + ".html"), html, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes entries that were not part of this run, so the cache tracks the latest report only.
+     */
+    public void prune() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                int dot = name.lastIndexOf('.');
+                if (dot > 0 && !used.contains(name.substring(0, dot))) {
+                    Files.deleteIfExists(entry);
+                }
+            }
+        }
+    }
+
+    public void recordHit() {
+        hits++;
+    }
+
+    public void recordMiss() {
+        misses++;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
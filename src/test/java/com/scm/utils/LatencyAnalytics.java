@@ -0,0 +1,217 @@
+package com.scm.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Where a run spent its time: the slowest steps and scenarios, a duration histogram per step definition
+ * and invocations that are outliers for their step. Built by {@link ReportGenerator} feature by feature
+ * in the same pass as the {@link ReportModel}; memory is bounded by the number of distinct steps, not
+ * by the size of the run.
+ * <p>
+ * Steps are grouped by the step definition they ran ({@code match.location} in cucumber.json). A group is
+ * labelled with the text of its first step, quoted strings and numbers replaced by {@code {string}},
+ * {@code {int}} and {@code {float}}; steps without a location fall back to that text as their key.
+ * Only passed and failed steps count; skipped steps did not run.
+ * <p>
+ * Tuning: {@code -Dreport.analytics.top} (default 10) slowest steps and scenarios are listed;
+ * an invocation more than {@code -Dreport.analytics.outlierSigma} (default 3) standard deviations
+ * above the mean of its step is an outlier.
+ */
+public class LatencyAnalytics {
+    /**
+     * Upper bounds, in seconds, of the histogram buckets shared by every step; the last bucket is open-ended.
+     */
+    public static final double[] BUCKET_BOUNDS = {0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 25, 60};
+    private static final int TOP = Integer.getInteger("report.analytics.top", 10);
+    private static final double OUTLIER_SIGMA = Double.parseDouble(System.getProperty("report.analytics.outlierSigma", "3"));
+    // Outliers are looked for among the slowest invocations of each step
+    private static final int CANDIDATES_PER_STEP = 5;
+
+    private static final Pattern QUOTED = Pattern.compile("\"[^\"]*\"");
+    private static final Pattern FLOAT = Pattern.compile("(?<![\\w.])-?\\d+\\.\\d+(?![\\w.])");
+    private static final Pattern INT = Pattern.compile("(?<![\\w.])-?\\d+(?![\\w.])");
+
+    public record StepTiming(String keyword, String text, String scenario, String feature, double seconds) {
+    }
+
+    public record ScenarioTiming(String name, String feature, double seconds) {
+    }
+
+    /**
+     * @param histogram invocation counts per {@link #BUCKET_BOUNDS} bucket, plus one for longer durations
+     */
+    public record StepGroup(String text, int count, double totalSeconds, double meanSeconds, double stdDevSeconds,
+                            double maxSeconds, int[] histogram) {
+    }
+
+    /**
+     * @param sigmas how many standard deviations the invocation is above the mean of its step
+     */
+    public record Outlier(StepTiming step, double meanSeconds, double stdDevSeconds, double sigmas) {
+    }
+
+    private final PriorityQueue<StepTiming> slowestSteps = new PriorityQueue<>(Comparator.comparingDouble(StepTiming::seconds));
+    private final PriorityQueue<ScenarioTiming> slowestScenarios =
+            new PriorityQueue<>(Comparator.comparingDouble(ScenarioTiming::seconds));
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+
+    void add(ReportGenerator.FeatureData feature) {
+        for (ReportGenerator.ScenarioData scenario : feature.scenarios) {
+            add(feature.name, scenario);
+        }
+    }
+
+    void add(String feature, ReportGenerator.ScenarioData scenario) {
+        keepTop(slowestScenarios, new ScenarioTiming(scenario.name, feature, scenario.duration), TOP);
+        for (ReportGenerator.StepData step : scenario.steps) {
+            if (!"passed".equals(step.status) && !"failed".equals(step.status)) {
+                continue;
+            }
+            StepTiming timing = new StepTiming(step.keyword, step.text, scenario.name, feature, step.duration);
+            keepTop(slowestSteps, timing, TOP);
+            String label = normalize(step.text);
+            String key = step.location == null || step.location.isEmpty() ? "text:" + label : step.location;
+            groups.computeIfAbsent(key, k -> new Group(label)).add(timing);
+        }
+    }
+
+    /**
+     * @return an independent copy, which later {@code add} calls on this one do not change
+     */
+    LatencyAnalytics copy() {
+        LatencyAnalytics copy = new LatencyAnalytics();
+        copy.slowestSteps.addAll(slowestSteps);
+        copy.slowestScenarios.addAll(slowestScenarios);
+        groups.forEach((key, group) -> copy.groups.put(key, group.copy()));
+        return copy;
+    }
+
+    /**
+     * @return true if no step ran, e.g. a run where every scenario was skipped
+     */
+    public boolean isEmpty() {
+        return groups.isEmpty();
+    }
+
+    /**
+     * @return the slowest step invocations, slowest first
+     */
+    public List<StepTiming> slowestSteps() {
+        return slowestSteps.stream().sorted(Comparator.comparingDouble(StepTiming::seconds).reversed()).toList();
+    }
+
+    /**
+     * @return the slowest scenarios, slowest first
+     */
+    public List<ScenarioTiming> slowestScenarios() {
+        return slowestScenarios.stream().sorted(Comparator.comparingDouble(ScenarioTiming::seconds).reversed()).toList();
+    }
+
+    /**
+     * @return every step definition, the one that took the most time in total first
+     */
+    public List<StepGroup> stepGroups() {
+        return groups.values().stream()
+                .map(Group::toStepGroup)
+                .sorted(Comparator.comparingDouble(StepGroup::totalSeconds).reversed())
+                .toList();
+    }
+
+    /**
+     * @return invocations more than the outlier threshold above the mean of their step, most extreme first
+     */
+    public List<Outlier> outliers() {
+        List<Outlier> outliers = new ArrayList<>();
+        for (Group group : groups.values()) {
+            double stdDev = group.stdDev();
+            if (stdDev <= 0) {
+                continue;
+            }
+            for (StepTiming candidate : group.slowest) {
+                double sigmas = (candidate.seconds() - group.mean) / stdDev;
+                if (sigmas > OUTLIER_SIGMA) {
+                    outliers.add(new Outlier(candidate, group.mean, stdDev, sigmas));
+                }
+            }
+        }
+        outliers.sort(Comparator.comparingDouble(Outlier::sigmas).reversed());
+        return outliers;
+    }
+
+    public static double getOutlierSigma() {
+        return OUTLIER_SIGMA;
+    }
+
+    static String normalize(String stepText) {
+        String text = QUOTED.matcher(stepText).replaceAll("{string}");
+        text = FLOAT.matcher(text).replaceAll("{float}");
+        return INT.matcher(text).replaceAll("{int}");
+    }
+
+    private static <T> void keepTop(PriorityQueue<T> top, T item, int limit) {
+        top.add(item);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    /**
+     * Running count, mean and variance (Welford), histogram and slowest invocations of one step definition.
+     */
+    private static class Group {
+        final String text;
+        final int[] histogram = new int[BUCKET_BOUNDS.length + 1];
+        final PriorityQueue<StepTiming> slowest = new PriorityQueue<>(Comparator.comparingDouble(StepTiming::seconds));
+        int count = 0;
+        double mean = 0;
+        double m2 = 0;
+        double total = 0;
+        double max = 0;
+
+        Group(String text) {
+            this.text = text;
+        }
+
+        void add(StepTiming timing) {
+            double seconds = timing.seconds();
+            count++;
+            double delta = seconds - mean;
+            mean += delta / count;
+            m2 += delta * (seconds - mean);
+            total += seconds;
+            max = Math.max(max, seconds);
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS.length && seconds > BUCKET_BOUNDS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket]++;
+            keepTop(slowest, timing, CANDIDATES_PER_STEP);
+        }
+
+        Group copy() {
+            Group copy = new Group(text);
+            System.arraycopy(histogram, 0, copy.histogram, 0, histogram.length);
+            copy.slowest.addAll(slowest);
+            copy.count = count;
+            copy.mean = mean;
+            copy.m2 = m2;
+            copy.total = total;
+            copy.max = max;
+            return copy;
+        }
+
+        double stdDev() {
+            return count > 1 ? Math.sqrt(m2 / count) : 0;
+        }
+
+        StepGroup toStepGroup() {
+            return new StepGroup(text, count, total, mean, stdDev(), max, histogram.clone());
+        }
+    }
+}
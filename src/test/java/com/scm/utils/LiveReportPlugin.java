@@ -0,0 +1,430 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.messages.types.Background;
+import io.cucumber.messages.types.Envelope;
+import io.cucumber.messages.types.Feature;
+import io.cucumber.messages.types.FeatureChild;
+import io.cucumber.messages.types.GherkinDocument;
+import io.cucumber.messages.types.RuleChild;
+import io.cucumber.messages.types.Step;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EmbedEvent;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Result;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cucumber plugin that builds the fancy HTML report while the suite runs, from
+ * {@code TestStepFinished}/{@code TestCaseFinished} events, instead of re-parsing cucumber.json afterwards.
+ * A snapshot is written every {@code -Dreport.live.interval} seconds (default 10) while scenarios finish,
+ * and once more when the run finishes. Snapshots reload themselves in the browser; the final report does not.
+ * <p>
+ * A finished scenario is rendered to its HTML item right away and only counted after that: feature counts,
+ * run stats and {@link LatencyAnalytics} are kept incrementally. Snapshots are written by a single background
+ * thread from a copy taken under the plugin's lock, so workers never wait for report I/O. That thread appends
+ * the items to a scratch file next to the report and reads them back by offset for each snapshot, so memory
+ * does not grow with the size of the run.
+ * <p>
+ * Register as {@code com.scm.utils.LiveReportPlugin:<output.html>}.
+ * {@link ReportGeneratorRunner} can still regenerate the same report from cucumber.json.
+ */
+public class LiveReportPlugin implements ConcurrentEventListener {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long INTERVAL_MILLIS = Long.getLong("report.live.interval", 10) * 1000;
+
+    private final File outputFile;
+    private final ScreenshotStore screenshots;
+    private final ScheduledExecutorService snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "live-report");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Scenarios still running, keyed by test case id
+    private final Map<UUID, ReportGenerator.ScenarioData> running = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final Map<URI, LiveFeature> features = new LinkedHashMap<>();
+    private final ReportModel.Builder run = new ReportModel.Builder();
+    private final LatencyAnalytics analytics = new LatencyAnalytics();
+    private boolean changed = false;
+
+    // Only used by the thread writing snapshots
+    private final Map<URI, List<Slice>> written = new HashMap<>();
+    private Path itemsFile;
+    private FileChannel items;
+
+    public LiveReportPlugin(File outputFile) {
+        this.outputFile = outputFile.getAbsoluteFile();
+        this.screenshots = new ScreenshotStore(this.outputFile.getParentFile().toPath());
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(Envelope.class, this::onEnvelope);
+        publisher.registerHandlerFor(TestStepFinished.class, this::onStepFinished);
+        publisher.registerHandlerFor(EmbedEvent.class, this::onEmbed);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> onTestRunFinished());
+        long interval = Math.max(1, INTERVAL_MILLIS);
+        snapshots.scheduleWithFixedDelay(() -> writeSnapshot(false), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes the feature name and background steps from the parsed Gherkin document, which Cucumber
+     * publishes before any scenario of the feature runs.
+     */
+    private synchronized void onEnvelope(Envelope envelope) {
+        GherkinDocument document = envelope.getGherkinDocument().orElse(null);
+        if (document == null || document.getUri().isEmpty() || document.getFeature().isEmpty()) {
+            return;
+        }
+        feature(URI.create(document.getUri().get())).read(document.getFeature().get());
+    }
+
+    private void onStepFinished(TestStepFinished event) {
+        if (!(event.getTestStep() instanceof PickleStepTestStep pickleStep)) {
+            return;
+        }
+        TestCase testCase = event.getTestCase();
+        // Background steps are reported separately in cucumber.json, so the scenario does not list them either
+        if (isBackgroundStep(testCase.getUri(), pickleStep.getStep().getLine())) {
+            return;
+        }
+
+        Result result = event.getResult();
+        ReportGenerator.StepData step = new ReportGenerator.StepData();
+        step.keyword = pickleStep.getStep().getKeyword();
+        step.text = pickleStep.getStep().getText();
+        // Same value as match.location in cucumber.json
+        step.location = pickleStep.getCodeLocation();
+        step.status = result.getStatus().name().toLowerCase();
+        step.duration = result.getDuration().toNanos() / 1_000_000_000.0;
+        if (result.getError() != null) {
+            StringWriter trace = new StringWriter();
+            result.getError().printStackTrace(new PrintWriter(trace));
+            step.errorMessage = trace.toString();
+        }
+        scenario(testCase).steps.add(step);
+    }
+
+    private void onEmbed(EmbedEvent event) {
+        if ("application/json".equals(event.getMediaType())) {
+            if (!ReportGenerator.RENDERED_JSON.contains(event.getName())) {
+                return;
+            }
+            try {
+                ReportGenerator.addJsonAttachment(scenario(event.getTestCase()), event.getName(), MAPPER.readTree(event.getData()));
+            } catch (IOException e) {
+                System.err.println("[LiveReportPlugin] ⚠ Could not read " + event.getName() + ": " + e.getMessage());
+            }
+            return;
+        }
+        if (!"image/png".equals(event.getMediaType())) {
+            return;
+        }
+        try {
+            String path = screenshots.stage(event.getData()).commit();
+            List<String> scenarioScreenshots = scenario(event.getTestCase()).screenshots;
+            if (!scenarioScreenshots.contains(path)) {
+                scenarioScreenshots.add(path);
+            }
+        } catch (IOException e) {
+            System.err.println("[LiveReportPlugin] ⚠ Could not store screenshot: " + e.getMessage());
+        }
+    }
+
+    private void onTestCaseFinished(TestCaseFinished event) {
+        TestCase testCase = event.getTestCase();
+        ReportGenerator.ScenarioData scenario = running.remove(testCase.getId());
+        if (scenario == null) {
+            scenario = newScenario(testCase);
+        }
+        scenario.complete();
+        Item item = new Item(testCase.getLocation().getLine(), ReportGenerator.scenarioItem(scenario));
+
+        synchronized (this) {
+            LiveFeature feature = feature(testCase.getUri());
+            feature.add(scenario, item);
+            run.scenario(scenario.status, scenario.tags, scenario.duration);
+            analytics.add(feature.name, scenario);
+            changed = true;
+        }
+    }
+
+    /**
+     * Stops the periodic snapshots and writes the final report once the last one is done.
+     */
+    private void onTestRunFinished() {
+        snapshots.shutdown();
+        try {
+            if (!snapshots.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("[LiveReportPlugin] ⚠ A snapshot is still being written; the final report was not");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        writeSnapshot(true);
+    }
+
+    private ReportGenerator.ScenarioData scenario(TestCase testCase) {
+        return running.computeIfAbsent(testCase.getId(), id -> newScenario(testCase));
+    }
+
+    private static ReportGenerator.ScenarioData newScenario(TestCase testCase) {
+        ReportGenerator.ScenarioData scenario = new ReportGenerator.ScenarioData();
+        scenario.name = testCase.getName();
+        scenario.tags.addAll(testCase.getTags());
+        return scenario;
+    }
+
+    private synchronized boolean isBackgroundStep(URI uri, int line) {
+        LiveFeature feature = features.get(uri);
+        return feature != null && feature.isBackgroundLine(line);
+    }
+
+    private LiveFeature feature(URI uri) {
+        return features.computeIfAbsent(uri, LiveFeature::new);
+    }
+
+    /**
+     * Renders every feature that has finished scenarios and replaces the report file atomically,
+     * so a browser never sees a half-written page. Runs on the snapshot thread, and at the end of the
+     * run once that thread has stopped.
+     */
+    private void writeSnapshot(boolean last) {
+        ReportModel.Stats stats;
+        LatencyAnalytics analyticsCopy;
+        List<FeatureSnapshot> snapshot = new ArrayList<>();
+        synchronized (this) {
+            if (!changed && !last) {
+                return;
+            }
+            changed = false;
+            stats = run.build().stats();
+            analyticsCopy = analytics.copy();
+            for (LiveFeature feature : features.values()) {
+                if (!feature.isEmpty()) {
+                    snapshot.add(feature.snapshot());
+                }
+            }
+        }
+
+        Path target = outputFile.toPath();
+        Path cards = null;
+        try {
+            Files.createDirectories(target.getParent());
+            cards = Files.createTempFile(target.getParent(), "live-report-features", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(cards, StandardCharsets.UTF_8)) {
+                for (FeatureSnapshot feature : snapshot) {
+                    writeCard(writer, feature);
+                }
+            }
+            Path tmp = Files.createTempFile(target.getParent(), "live-report", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8);
+                 Reader features = Files.newBufferedReader(cards, StandardCharsets.UTF_8)) {
+                ReportGenerator.writeHTML(writer, stats, analyticsCopy, features,
+                        last ? 0 : (int) Math.max(1, INTERVAL_MILLIS / 1000));
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (last) {
+                System.out.println("[LiveReportPlugin] ✓ Report written: " + outputFile + " (" + stats.total() + " scenarios)");
+            }
+        } catch (IOException e) {
+            System.err.println("[LiveReportPlugin] ⚠ Could not write " + outputFile + ": " + e.getMessage());
+        } finally {
+            deleteQuietly(cards);
+            if (last) {
+                closeItems();
+            }
+        }
+    }
+
+    /**
+     * Appends the feature's new items to the scratch file, then writes its card with every item in line order.
+     */
+    private void writeCard(Writer writer, FeatureSnapshot feature) throws IOException {
+        List<Slice> slices = written.computeIfAbsent(feature.uri(), uri -> new ArrayList<>());
+        for (Item item : feature.added()) {
+            slices.add(append(item));
+        }
+        slices.sort(Comparator.comparingInt(Slice::line));
+        writer.write(ReportGenerator.featureCardStart(feature.counts()));
+        for (Slice slice : slices) {
+            writer.write(read(slice));
+        }
+        writer.write(ReportGenerator.FEATURE_CARD_END);
+    }
+
+    private Slice append(Item item) throws IOException {
+        if (items == null) {
+            itemsFile = Files.createTempFile(outputFile.toPath().getParent(), "live-report-items", ".tmp");
+            itemsFile.toFile().deleteOnExit();
+            items = FileChannel.open(itemsFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(item.html().getBytes(StandardCharsets.UTF_8));
+        long offset = items.size();
+        long position = offset;
+        while (bytes.hasRemaining()) {
+            position += items.write(bytes, position);
+        }
+        return new Slice(item.line(), offset, bytes.capacity());
+    }
+
+    private String read(Slice slice) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(slice.length());
+        long position = slice.offset();
+        while (bytes.hasRemaining()) {
+            int read = items.read(bytes, position);
+            if (read < 0) {
+                throw new IOException(itemsFile + " ends before the item at " + slice.offset());
+            }
+            position += read;
+        }
+        return new String(bytes.array(), StandardCharsets.UTF_8);
+    }
+
+    private void closeItems() {
+        if (items == null) {
+            return;
+        }
+        try {
+            items.close();
+        } catch (IOException e) {
+            System.err.println("[LiveReportPlugin] ⚠ Could not close " + itemsFile + ": " + e.getMessage());
+        }
+        deleteQuietly(itemsFile);
+        items = null;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("[LiveReportPlugin] ⚠ Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A finished scenario's rendered item, until the snapshot thread has written it to the scratch file.
+     */
+    private record Item(int line, String html) {
+    }
+
+    /**
+     * Where a scenario's item is in the scratch file.
+     */
+    private record Slice(int line, long offset, int length) {
+    }
+
+    /**
+     * @param counts the feature's name, status and counts, without scenarios
+     * @param added  items finished since the previous snapshot
+     */
+    private record FeatureSnapshot(URI uri, ReportGenerator.FeatureData counts, List<Item> added) {
+    }
+
+    /**
+     * One feature file: its name and background lines from the Gherkin document, the counts of its
+     * finished scenarios, and the items not yet taken by a snapshot.
+     */
+    private static class LiveFeature {
+        final URI uri;
+        String name = "Unnamed Feature";
+        final Set<Integer> backgroundLines = new HashSet<>();
+        final ReportGenerator.FeatureData counts = new ReportGenerator.FeatureData();
+        List<Item> added = new ArrayList<>();
+
+        LiveFeature(URI uri) {
+            this.uri = uri;
+        }
+
+        /**
+         * Picks the feature name and the lines of background steps (of the feature and of its rules)
+         * out of the Gherkin document.
+         */
+        void read(Feature feature) {
+            name = feature.getName();
+            for (FeatureChild child : feature.getChildren()) {
+                child.getBackground().ifPresent(this::addBackground);
+                child.getRule().ifPresent(rule -> rule.getChildren().stream()
+                        .map(RuleChild::getBackground)
+                        .forEach(background -> background.ifPresent(this::addBackground)));
+            }
+        }
+
+        private void addBackground(Background background) {
+            for (Step step : background.getSteps()) {
+                backgroundLines.add(step.getLocation().getLine().intValue());
+            }
+        }
+
+        boolean isBackgroundLine(int line) {
+            return backgroundLines.contains(line);
+        }
+
+        void add(ReportGenerator.ScenarioData scenario, Item item) {
+            counts.count(scenario);
+            added.add(item);
+        }
+
+        boolean isEmpty() {
+            return counts.passed + counts.failed + counts.skipped == 0;
+        }
+
+        /**
+         * Copies the counts and hands over the items added since the previous snapshot.
+         */
+        FeatureSnapshot snapshot() {
+            ReportGenerator.FeatureData copy = new ReportGenerator.FeatureData();
+            copy.name = name;
+            copy.uri = uri.toString();
+            copy.passed = counts.passed;
+            copy.failed = counts.failed;
+            copy.skipped = counts.skipped;
+            copy.flaky = counts.flaky;
+            copy.updateStatus();
+            FeatureSnapshot snapshot = new FeatureSnapshot(uri, copy, added);
+            added = new ArrayList<>();
+            return snapshot;
+        }
+    }
+}
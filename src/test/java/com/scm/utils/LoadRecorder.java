@@ -0,0 +1,174 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.HookType;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cucumber plugin that records scenario and step latencies for load runs
+ * ({@code com.scm.runners.LoadTestRunner}). Every concurrent Cucumber run registers its own instance,
+ * so results go into one shared, thread-safe record that {@link #summarize} turns into throughput,
+ * error rate and percentiles.
+ * <p>
+ * Steps are grouped by step definition as in {@link LatencyAnalytics}; a scenario that did not pass
+ * counts as an error, and only steps that ran (passed or failed) have a latency.
+ * <p>
+ * Before hooks (acquiring a browser session, which means starting a browser unless the pool has a warm
+ * one) are reported as session setup and left out of the scenario latency, so it measures the scenario.
+ */
+public class LoadRecorder implements ConcurrentEventListener {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SCENARIOS = "all scenarios";
+    private static final String SESSION_SETUP = "session setup (before hooks)";
+
+    private static final Map<String, Series> scenarios = new ConcurrentHashMap<>();
+    private static final Map<String, Series> steps = new ConcurrentHashMap<>();
+    // Before-hook time of the test cases still running, subtracted from their duration when they finish
+    private static final Map<UUID, Long> setupNanos = new ConcurrentHashMap<>();
+
+    /**
+     * @param errors runs that did not pass; they are included in the percentiles
+     */
+    public record Latency(String name, int count, int errors, long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+    }
+
+    /**
+     * @param throughput      scenarios finished per second of wall-clock time
+     * @param errorRate       failed scenarios / finished scenarios
+     * @param scenarioLatency scenario duration without its before hooks
+     * @param sessionSetup    before hooks of each scenario, mostly acquiring or starting a browser session
+     */
+    public record Summary(int sessions, double elapsedSeconds, int scenarios, int failed, double throughput,
+                          double errorRate, Latency scenarioLatency, Latency sessionSetup, List<Latency> stepLatencies) {
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::onStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+    }
+
+    private void onStepFinished(TestStepFinished event) {
+        if (event.getTestStep() instanceof HookTestStep hook && hook.getHookType() == HookType.BEFORE) {
+            setupNanos.merge(event.getTestCase().getId(), event.getResult().getDuration().toNanos(), Long::sum);
+            return;
+        }
+        if (!(event.getTestStep() instanceof PickleStepTestStep step)) {
+            return;
+        }
+        Status status = event.getResult().getStatus();
+        if (status != Status.PASSED && status != Status.FAILED) {
+            return;
+        }
+        String label = LatencyAnalytics.normalize(step.getStep().getText());
+        String key = step.getCodeLocation() == null ? "text:" + label : step.getCodeLocation();
+        steps.computeIfAbsent(key, k -> new Series(label))
+                .add(event.getResult().getDuration().toNanos(), status == Status.FAILED);
+    }
+
+    private void onTestCaseFinished(TestCaseFinished event) {
+        boolean failed = event.getResult().getStatus() != Status.PASSED;
+        long setup = setupNanos.getOrDefault(event.getTestCase().getId(), 0L);
+        setupNanos.remove(event.getTestCase().getId());
+        scenarios.computeIfAbsent(SESSION_SETUP, Series::new).add(setup, false);
+        scenarios.computeIfAbsent(SCENARIOS, Series::new)
+                .add(Math.max(0, event.getResult().getDuration().toNanos() - setup), failed);
+        if (failed && event.getResult().getError() != null) {
+            System.out.println("[LoadRecorder] ✗ " + event.getTestCase().getName() + ": "
+                    + event.getResult().getError().getMessage());
+        }
+    }
+
+    /**
+     * Clears everything recorded so far, e.g. before a new load run in the same JVM.
+     */
+    public static void reset() {
+        scenarios.clear();
+        steps.clear();
+        setupNanos.clear();
+    }
+
+    /**
+     * @return scenarios finished so far and how many of them failed
+     */
+    public static int[] progress() {
+        Series series = scenarios.get(SCENARIOS);
+        return series == null ? new int[2] : new int[] {series.count(), series.errors.get()};
+    }
+
+    /**
+     * @param elapsedNanos wall-clock time of the load run, for throughput
+     */
+    public static Summary summarize(int sessions, long elapsedNanos) {
+        Series scenario = scenarios.getOrDefault(SCENARIOS, new Series(SCENARIOS));
+        int finished = scenario.count();
+        int failed = scenario.errors.get();
+        double elapsedSeconds = elapsedNanos / 1_000_000_000.0;
+        List<Latency> stepLatencies = new ArrayList<>();
+        for (Series series : steps.values()) {
+            stepLatencies.add(series.latency());
+        }
+        stepLatencies.sort(Comparator.comparingLong(Latency::p95Nanos).reversed());
+        return new Summary(sessions, elapsedSeconds, finished, failed,
+                elapsedSeconds > 0 ? finished / elapsedSeconds : 0,
+                finished > 0 ? failed / (double) finished : 0,
+                scenario.latency(), scenarios.getOrDefault(SESSION_SETUP, new Series(SESSION_SETUP)).latency(),
+                stepLatencies);
+    }
+
+    public static String toJson(Summary summary) {
+        try {
+            return MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(summary);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Durations of one scenario or step definition across all sessions.
+     */
+    private static class Series {
+        final String name;
+        final List<Long> nanos = new ArrayList<>();
+        final AtomicInteger errors = new AtomicInteger();
+
+        Series(String name) {
+            this.name = name;
+        }
+
+        synchronized void add(long durationNanos, boolean error) {
+            nanos.add(durationNanos);
+            if (error) {
+                errors.incrementAndGet();
+            }
+        }
+
+        synchronized int count() {
+            return nanos.size();
+        }
+
+        synchronized Latency latency() {
+            if (nanos.isEmpty()) {
+                return new Latency(name, 0, 0, 0, 0, 0, 0);
+            }
+            Samples.Distribution distribution = new Samples.Distribution(name, 0, List.copyOf(nanos));
+            return new Latency(name, nanos.size(), errors.get(), distribution.percentile(50),
+                    distribution.percentile(95), distribution.percentile(99), distribution.max());
+        }
+    }
+}
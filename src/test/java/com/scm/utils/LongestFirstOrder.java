@@ -0,0 +1,105 @@
+package com.scm.utils;
+
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.launcher.LauncherDiscoveryListener;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the longest scenarios first in parallel runs, so a slow scenario does not start last and keep the
+ * whole run waiting for it. Expected durations come from the local {@link TimingHistory}, which
+ * {@link TimingRecorder} updates after every run; scenarios without history are assumed to be the longest.
+ * <p>
+ * The discovered test tree is reordered in place: the children of every container (features, rules, examples)
+ * are sorted by the longest scenario they contain. Cucumber runs pickles feature by feature, so this is
+ * longest-first within each feature and among features, not a single global queue. Feature files are untouched.
+ * <p>
+ * Registered with the JUnit Platform launcher through {@code META-INF/services}, both as the filter and as a
+ * discovery listener that reads the launcher's configuration parameters (system properties,
+ * {@code junit-platform.properties} and those surefire passes). It is on when
+ * {@code cucumber.execution.parallel.enabled} is true there; {@code schedule.longestFirst=true|false} forces it
+ * on or off. It never excludes anything.
+ */
+public class LongestFirstOrder implements PostDiscoveryFilter, LauncherDiscoveryListener {
+    // Set by the listener instance when discovery starts, read by the filter instance during the same discovery
+    private static volatile boolean enabled = false;
+
+    private boolean logged = false;
+
+    @Override
+    public void launcherDiscoveryStarted(LauncherDiscoveryRequest request) {
+        ConfigurationParameters parameters = request.getConfigurationParameters();
+        enabled = parameters.getBoolean("schedule.longestFirst")
+                .orElse(parameters.getBoolean("cucumber.execution.parallel.enabled").orElse(false));
+    }
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        // Each discovery builds a new tree (surefire discovers once for the test plan and again to execute)
+        if (enabled && descriptor.isRoot()) {
+            order(descriptor);
+        }
+        return FilterResult.included("ordering only");
+    }
+
+    private void order(TestDescriptor root) {
+        TimingHistory history = TimingHistory.local();
+        Map<TestDescriptor, Double> expected = new HashMap<>();
+        int[] counts = new int[2]; // scenarios, of which without history
+        expectedSeconds(root, history, expected, counts);
+        if (counts[0] == 0) {
+            return;
+        }
+        sortChildren(root, expected);
+        if (logged) {
+            return;
+        }
+        logged = true;
+        System.out.println("[LongestFirstOrder] Ordered " + counts[0] + " scenarios longest first ("
+                + counts[1] + " without history, run first)");
+    }
+
+    /**
+     * @return the longest expected duration of a scenario in {@code descriptor}; infinite without history
+     */
+    private static double expectedSeconds(TestDescriptor descriptor, TimingHistory history,
+                                          Map<TestDescriptor, Double> expected, int[] counts) {
+        double seconds = 0;
+        if (descriptor.isTest()) {
+            String key = descriptor.getSource().flatMap(TimingHistory::key).orElse(null);
+            if (key != null) {
+                counts[0]++;
+                seconds = history.seconds(key).orElse(Double.POSITIVE_INFINITY);
+                if (Double.isInfinite(seconds)) {
+                    counts[1]++;
+                }
+            }
+        }
+        for (TestDescriptor child : descriptor.getChildren()) {
+            seconds = Math.max(seconds, expectedSeconds(child, history, expected, counts));
+        }
+        expected.put(descriptor, seconds);
+        return seconds;
+    }
+
+    private static void sortChildren(TestDescriptor container, Map<TestDescriptor, Double> expected) {
+        List<TestDescriptor> children = new ArrayList<>(container.getChildren());
+        // Stable sort: equally long scenarios keep their file order
+        children.sort(Comparator.comparingDouble((TestDescriptor child) -> expected.getOrDefault(child, 0.0)).reversed());
+        for (TestDescriptor child : children) {
+            container.removeChild(child);
+        }
+        for (TestDescriptor child : children) {
+            container.addChild(child);
+            sortChildren(child, expected);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Navigation, Paint and Resource Timing as measured by the browser, so performance steps assert on
+ * the application (DNS, time to first byte, DOMContentLoaded, load event, slow resources) rather than on
+ * WebDriver command overhead around {@code driver.get}.
+ * <p>
+ * One entry is recorded per document (navigation) and thread, once its load event has finished.
+ * Step helpers that leave a page (a {@code driver.get}, a form submit, a click on a link) call
+ * {@link #beforeNavigation(WebDriver)} first, so every page is recorded even if it never became ready;
+ * {@link PageReadiness} also records the current page whenever it becomes ready, and {@code Hooks} records
+ * the last page and attaches the scenario's navigations as {@code application/json} named
+ * {@value #ATTACHMENT_NAME}. All times are milliseconds from the start of the navigation.
+ */
+public class NavigationTiming {
+    public static final String ATTACHMENT_NAME = "navigation-timing";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Returns null until the load event has finished, otherwise the timing as a JSON string.
+     * Pages that are not loaded over HTTP (about:blank between scenarios) are never recorded.
+     * The resource list is whatever the browser's timing buffer holds (250 entries by default).
+     */
+    private static final String TIMING_SCRIPT =
+            "var nav = performance.getEntriesByType('navigation')[0];\n"
+            + "if (!nav || !/^https?:/.test(nav.name) || nav.loadEventEnd === 0) return null;\n"
+            + "var paint = {};\n"
+            + "performance.getEntriesByType('paint').forEach(function (p) { paint[p.name] = p.startTime; });\n"
+            + "return JSON.stringify({\n"
+            + "  url: nav.name, type: nav.type, timeOrigin: performance.timeOrigin,\n"
+            + "  dnsMillis: nav.domainLookupEnd - nav.domainLookupStart,\n"
+            + "  connectMillis: nav.connectEnd - nav.connectStart,\n"
+            + "  tlsMillis: nav.secureConnectionStart > 0 ? nav.connectEnd - nav.secureConnectionStart : 0,\n"
+            + "  timeToFirstByteMillis: nav.responseStart,\n"
+            + "  responseMillis: nav.responseEnd - nav.responseStart,\n"
+            + "  domContentLoadedMillis: nav.domContentLoadedEventEnd,\n"
+            + "  loadEventMillis: nav.loadEventEnd,\n"
+            + "  firstPaintMillis: paint['first-paint'] === undefined ? null : paint['first-paint'],\n"
+            + "  firstContentfulPaintMillis: paint['first-contentful-paint'] === undefined ? null : paint['first-contentful-paint'],\n"
+            + "  transferSize: nav.transferSize || 0,\n"
+            + "  resources: performance.getEntriesByType('resource').map(function (r) {\n"
+            + "    return { name: r.name, initiatorType: r.initiatorType, startMillis: r.startTime,\n"
+            + "             durationMillis: r.duration, transferSize: r.transferSize || 0 };\n"
+            + "  })\n"
+            + "});";
+
+    private static final ThreadLocal<List<Navigation>> navigations = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * @param timeOrigin                 epoch millis at which the navigation started; identifies the document
+     * @param firstPaintMillis           null if the browser does not report paint timing
+     * @param firstContentfulPaintMillis null if the browser does not report paint timing
+     * @param transferSize               bytes, 0 for cached or cross-origin responses
+     */
+    public record Navigation(String url, String type, double timeOrigin,
+                             double dnsMillis, double connectMillis, double tlsMillis,
+                             double timeToFirstByteMillis, double responseMillis,
+                             double domContentLoadedMillis, double loadEventMillis,
+                             Double firstPaintMillis, Double firstContentfulPaintMillis,
+                             long transferSize, List<Resource> resources) {
+
+        /**
+         * @return the {@code limit} longest-running resources, slowest first
+         */
+        public List<Resource> slowestResources(int limit) {
+            return resources.stream()
+                    .sorted(Comparator.comparingDouble(Resource::durationMillis).reversed())
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
+    public record Resource(String name, String initiatorType, double startMillis, double durationMillis, long transferSize) {
+    }
+
+    /**
+     * Records the current document if its load event has finished and it is not recorded yet.
+     * Never waits and never fails; browser errors just mean nothing is recorded.
+     * @return the current document's timing, if available
+     */
+    public static Optional<Navigation> collect(WebDriver driver) {
+        try {
+            return Optional.ofNullable(read(driver));
+        } catch (WebDriverException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Records the page the driver is about to leave, if its load event has finished. Call it right before
+     * anything that may navigate away, since the browser drops a document's timing with the document.
+     */
+    public static void beforeNavigation(WebDriver driver) {
+        collect(driver);
+    }
+
+    /**
+     * Waits (as a required wait) for the current document's load event, then records and returns its timing.
+     * @throws org.openqa.selenium.TimeoutException if the page did not finish loading within the budget
+     */
+    public static Navigation await(WebDriver driver, Duration timeout) {
+        return Waits.required(driver, "navigation timing", timeout, NavigationTiming::read);
+    }
+
+    /**
+     * Starts a fresh record for the calling thread (one scenario).
+     */
+    public static void reset() {
+        navigations.get().clear();
+    }
+
+    /**
+     * @return the navigations recorded on the calling thread since the last {@link #reset()}, in order
+     */
+    public static List<Navigation> getNavigations() {
+        return List.copyOf(navigations.get());
+    }
+
+    public static String toJson(List<Navigation> recorded) {
+        try {
+            return MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(recorded);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Navigation read(WebDriver driver) {
+        Object json = ((JavascriptExecutor) driver).executeScript(TIMING_SCRIPT);
+        if (!(json instanceof String text)) {
+            return null;
+        }
+        Navigation navigation;
+        try {
+            navigation = MAPPER.readValue(text, Navigation.class);
+        } catch (JsonProcessingException e) {
+            System.err.println("[NavigationTiming] ⚠ Unreadable timing entry: " + e.getMessage());
+            return null;
+        }
+        List<Navigation> recorded = navigations.get();
+        for (int i = 0; i < recorded.size(); i++) {
+            if (recorded.get(i).timeOrigin() == navigation.timeOrigin()) {
+                // Same document: keep the newer reading, which has seen more resources
+                recorded.set(i, navigation);
+                return navigation;
+            }
+        }
+        recorded.add(navigation);
+        return navigation;
+    }
+}
@@ -0,0 +1,357 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the browser's network traffic once and replays it afterwards, so runs do not depend on the
+ * network: no consent flows that change overnight, no cold starts, no slow government hosts.
+ * <p>
+ * {@code -Dnetwork.mode=record} intercepts every request through DevTools (Chrome and Edge), lets it
+ * through and saves the response; {@code -Dnetwork.mode=replay} answers every request from the archive
+ * without touching the network. Requests are matched by method, URL and a SHA-256 of the request body;
+ * the first recorded response for a request is kept. A request that is not in the archive gets a 404.
+ * <p>
+ * Query parameters that change on every page view (Google's {@code ei}, {@code sca_esv}, {@code gs_lp},
+ * {@code psi} and the like) are left out of the URL when matching, so a replayed page can request its
+ * resources with new values. {@code -Dnetwork.ignoreParams} replaces the list (comma-separated names,
+ * empty to match URLs exactly); the archive keeps the full URLs, so the list can change without re-recording.
+ * <p>
+ * The archive is two files, {@code <archive>.har} and {@code <archive>.bodies}, with {@code <archive>} from
+ * {@code -Dnetwork.archive} (default {@code src/test/resources/network/archive}). The {@code .har} file is a
+ * HAR-like JSON index of requests and response headers; bodies are appended to the {@code .bodies} file as
+ * they arrive and read back by offset on replay, so neither mode holds bodies in memory. Recording writes both
+ * files next to the archive as {@code .tmp} files and only moves them into place when it is saved at exit,
+ * so an interrupted recording leaves the previous archive intact.
+ */
+public class NetworkArchive {
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    private static final Path ARCHIVE = Paths.get(System.getProperty("network.archive", "src/test/resources/network/archive"));
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    // The recorded body is already decoded, so length and encoding headers no longer apply
+    private static final Set<String> DROPPED_HEADERS = Set.of("content-encoding", "content-length", "transfer-encoding");
+    // Query parameters left out of the replay key: per-page-view ids, tokens and cache busters
+    private static final Set<String> IGNORED_PARAMS = Set.copyOf(Arrays.stream(System.getProperty("network.ignoreParams",
+                    "ei,sei,ved,sca_esv,sca_upv,gs_lp,gs_lcrp,gs_ssp,psi,iflsig,uact,sxsrf,aqs,zx,_").split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .toList());
+
+    // Read on first use, so a misspelled -Dnetwork.mode fails the scenario with a message, not the class
+    private static volatile Mode mode;
+    private static Recorder recorder;
+    private static Replayer replayer;
+
+    public record Har(Log log) {
+    }
+
+    public record Log(String version, Creator creator, List<Entry> entries) {
+    }
+
+    public record Creator(String name, String version) {
+    }
+
+    /**
+     * @param time milliseconds the request took when it was recorded
+     */
+    public record Entry(String startedDateTime, double time, Request request, Response response) {
+    }
+
+    /**
+     * @param postDataSha256 hex SHA-256 of the request body (of no bytes when there is none)
+     */
+    public record Request(String method, String url, String postDataSha256, long postDataSize) {
+    }
+
+    public record Response(int status, List<Header> headers, Content content) {
+    }
+
+    public record Header(String name, String value) {
+    }
+
+    /**
+     * @param offset where the body starts in the {@code .bodies} file
+     */
+    public record Content(long size, String mimeType, long offset) {
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code -Dnetwork.mode} is not one of the modes
+     */
+    public static Mode getMode() {
+        Mode current = mode;
+        if (current == null) {
+            current = mode = parseMode(System.getProperty("network.mode", "off"));
+        }
+        return current;
+    }
+
+    static Mode parseMode(String value) {
+        try {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Network mode not supported: " + value + " (expected one of: "
+                    + String.join(", ", Arrays.stream(Mode.values()).map(m -> m.name().toLowerCase(Locale.ROOT)).toList()) + ")", e);
+        }
+    }
+
+    /**
+     * Starts recording or replaying the session's traffic, according to {@code -Dnetwork.mode}.
+     * Does nothing when the mode is off.
+     * @throws IllegalStateException in replay mode without an archive
+     * @throws IllegalArgumentException if {@code -Dnetwork.mode} is not one of the modes
+     */
+    public static void attach(WebDriver driver) {
+        Mode current = getMode();
+        if (current == Mode.OFF) {
+            return;
+        }
+        if (!(driver instanceof HasDevTools)) {
+            System.err.println("[NetworkArchive] ⚠ " + current.name().toLowerCase() + " needs DevTools (Chrome or Edge); "
+                    + "this session uses the network");
+            return;
+        }
+        Filter filter = current == Mode.RECORD ? recorder()::filter : replayer()::filter;
+        // The interceptor lives as long as the session's DevTools connection
+        new NetworkInterceptor(driver, filter);
+    }
+
+    private static synchronized Recorder recorder() {
+        if (recorder == null) {
+            recorder = new Recorder();
+            Runtime.getRuntime().addShutdownHook(new Thread(recorder::save, "network-archive-save"));
+        }
+        return recorder;
+    }
+
+    private static synchronized Replayer replayer() {
+        if (replayer == null) {
+            replayer = new Replayer();
+        }
+        return replayer;
+    }
+
+    static String key(String method, String url, String bodySha256) {
+        return method + " " + withoutIgnoredParams(url) + " " + bodySha256;
+    }
+
+    /**
+     * @return the URL without its {@code -Dnetwork.ignoreParams} query parameters; the others keep their order
+     */
+    static String withoutIgnoredParams(String url) {
+        int query = url.indexOf('?');
+        if (query < 0 || IGNORED_PARAMS.isEmpty()) {
+            return url;
+        }
+        int fragment = url.indexOf('#', query);
+        String params = fragment < 0 ? url.substring(query + 1) : url.substring(query + 1, fragment);
+        StringBuilder kept = new StringBuilder();
+        for (String param : params.split("&")) {
+            int equals = param.indexOf('=');
+            if (param.isEmpty() || IGNORED_PARAMS.contains(equals < 0 ? param : param.substring(0, equals))) {
+                continue;
+            }
+            kept.append(kept.length() == 0 ? "?" : "&").append(param);
+        }
+        return url.substring(0, query) + kept + (fragment < 0 ? "" : url.substring(fragment));
+    }
+
+    private static Path har() {
+        return Paths.get(ARCHIVE + ".har");
+    }
+
+    private static Path bodies() {
+        return Paths.get(ARCHIVE + ".bodies");
+    }
+
+    private static Path tmp(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Passes requests through and appends each new response to the archive.
+     */
+    private static class Recorder {
+        private final List<Entry> entries = new ArrayList<>();
+        private final Set<String> keys = new HashSet<>();
+        private final FileChannel out;
+        private long size = 0;
+
+        Recorder() {
+            try {
+                Files.createDirectories(bodies().toAbsolutePath().getParent());
+                out = FileChannel.open(tmp(bodies()), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create " + tmp(bodies()), e);
+            }
+            System.out.println("[NetworkArchive] Recording network traffic to " + har());
+        }
+
+        HttpHandler filter(HttpHandler next) {
+            return request -> {
+                byte[] requestBody = Contents.bytes(request.getContent());
+                request.setContent(Contents.bytes(requestBody));
+                long start = System.nanoTime();
+                HttpResponse response = next.execute(request);
+                double millis = (System.nanoTime() - start) / 1_000_000.0;
+                byte[] body = Contents.bytes(response.getContent());
+                response.setContent(Contents.bytes(body));
+                add(request, requestBody, millis, response, body);
+                return response;
+            };
+        }
+
+        private synchronized void add(HttpRequest request, byte[] requestBody, double millis, HttpResponse response, byte[] body) {
+            String method = request.getMethod().name();
+            String hash = sha256(requestBody);
+            if (!keys.add(key(method, request.getUri(), hash))) {
+                return;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(body);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            } catch (IOException e) {
+                System.err.println("[NetworkArchive] ⚠ Could not record " + method + " " + request.getUri() + ": " + e.getMessage());
+                return;
+            }
+            List<Header> headers = new ArrayList<>();
+            response.forEachHeader((name, value) -> {
+                if (!DROPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.add(new Header(name, value));
+                }
+            });
+            entries.add(new Entry(Instant.now().toString(), millis,
+                    new Request(method, request.getUri(), hash, requestBody.length),
+                    new Response(response.getStatus(), headers,
+                            new Content(body.length, response.getHeader("Content-Type"), size))));
+            size += body.length;
+        }
+
+        synchronized void save() {
+            try {
+                out.close();
+                MAPPER.writerWithDefaultPrettyPrinter().writeValue(tmp(har()).toFile(),
+                        new Har(new Log("1.2", new Creator("scm-network-archive", "1"), entries)));
+                // Both files are complete; the .har goes last, as it is what replay checks for first
+                Files.move(tmp(bodies()), bodies(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(tmp(har()), har(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                System.out.println("[NetworkArchive] ✓ Recorded " + entries.size() + " responses (" + size / 1024
+                        + " KB) to " + har());
+            } catch (IOException e) {
+                System.err.println("[NetworkArchive] ⚠ Could not save " + har() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Answers every request from the archive; bodies are read by position from the {@code .bodies} file,
+     * which stays open for the rest of the run. Positional reads do not share a file pointer, so sessions
+     * in parallel can read at the same time, and unlike a memory map they are not limited to 2 GB.
+     */
+    private static class Replayer {
+        private final Map<String, Entry> index = new HashMap<>();
+        private final FileChannel bodies;
+        private final Set<String> misses = ConcurrentHashMap.newKeySet();
+
+        Replayer() {
+            if (!Files.isRegularFile(har()) || !Files.isRegularFile(bodies())) {
+                throw new IllegalStateException("No network archive at " + ARCHIVE
+                        + ".{har,bodies}; record one first with -Dnetwork.mode=record");
+            }
+            try {
+                Har archive = MAPPER.readValue(har().toFile(), Har.class);
+                for (Entry entry : archive.log().entries()) {
+                    Request request = entry.request();
+                    index.putIfAbsent(key(request.method(), request.url(), request.postDataSha256()), entry);
+                }
+                bodies = FileChannel.open(bodies(), StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open the network archive " + ARCHIVE, e);
+            }
+            System.out.println("[NetworkArchive] Replaying " + index.size() + " responses from " + har());
+        }
+
+        HttpHandler filter(HttpHandler next) {
+            return request -> {
+                String method = request.getMethod().name();
+                Entry entry = index.get(key(method, request.getUri(), sha256(Contents.bytes(request.getContent()))));
+                if (entry == null) {
+                    if (misses.add(method + " " + request.getUri())) {
+                        System.err.println("[NetworkArchive] ⚠ Not in archive, answering 404: " + method + " " + request.getUri());
+                    }
+                    return new HttpResponse().setStatus(404);
+                }
+                HttpResponse response = new HttpResponse().setStatus(entry.response().status());
+                for (Header header : entry.response().headers()) {
+                    response.addHeader(header.name(), header.value());
+                }
+                return response.setContent(Contents.bytes(body(entry.response().content())));
+            };
+        }
+
+        /**
+         * @throws ArithmeticException for a single body over 2 GB, which cannot be one byte array
+         */
+        private byte[] body(Content content) {
+            ByteBuffer body = ByteBuffer.allocate(Math.toIntExact(content.size()));
+            long position = content.offset();
+            try {
+                while (body.hasRemaining()) {
+                    int read = bodies.read(body, position);
+                    if (read < 0) {
+                        throw new IOException("the file ends before the body does");
+                    }
+                    position += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read a " + content.size() + " byte body at offset "
+                        + content.offset() + " of " + bodies(), e);
+            }
+            return body.array();
+        }
+    }
+}
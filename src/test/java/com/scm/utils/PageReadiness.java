@@ -0,0 +1,228 @@
+package com.scm.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.JsonInput;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Waits until a page is actually ready instead of sleeping for a fixed time.
+ * Returns as soon as every requested {@link Condition} holds, polling via {@link Waits}:
+ * <ul>
+ *   <li>{@link Condition#DOCUMENT_READY} - {@code document.readyState} is {@code complete}</li>
+ *   <li>{@link Condition#NETWORK_IDLE} - no network request in flight for a quiet window, tracked with
+ *       DevTools {@code Network.*} events on Chromium browsers</li>
+ *   <li>{@link Condition#NO_PENDING_REQUESTS} - no {@code fetch}/{@code XMLHttpRequest} pending in the page</li>
+ *   <li>{@link Condition#NO_ANIMATIONS} - no finite CSS/Web animation or transition running</li>
+ * </ul>
+ * Without DevTools (e.g. Firefox) network idle falls back to the in-page fetch/XHR counter.
+ * A page that becomes ready also has its browser timing recorded by {@link NavigationTiming}.
+ * <p>
+ * Tuning: {@code -Dreadiness.quietMillis} (default 500) is how long the network must stay idle;
+ * requests older than {@code -Dreadiness.ignoreRequestsAfterMillis} (default 5000) are ignored, so
+ * long-polling or stuck analytics calls cannot block readiness forever.
+ */
+public class PageReadiness {
+    public enum Condition { DOCUMENT_READY, NETWORK_IDLE, NO_PENDING_REQUESTS, NO_ANIMATIONS }
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Set<Condition> ALL = EnumSet.allOf(Condition.class);
+    private static final long QUIET_MILLIS = Long.getLong("readiness.quietMillis", 500);
+    private static final long IGNORE_AFTER_MILLIS = Long.getLong("readiness.ignoreRequestsAfterMillis", 5000);
+
+    /**
+     * Counts in-flight fetch/XHR calls in {@code window.__scmReadiness}. Idempotent, so it is both
+     * registered to run on every new document and re-run before each check.
+     */
+    private static final String REQUEST_HOOK =
+            "(function () {\n"
+            + "  if (window.__scmReadiness) return;\n"
+            + "  var state = window.__scmReadiness = { pending: 0, last: performance.now() };\n"
+            + "  function start() { state.pending++; state.last = performance.now(); }\n"
+            + "  function end() { state.pending = Math.max(0, state.pending - 1); state.last = performance.now(); }\n"
+            + "  if (window.fetch) {\n"
+            + "    var fetch = window.fetch;\n"
+            + "    window.fetch = function () {\n"
+            + "      start();\n"
+            + "      return fetch.apply(this, arguments).finally(end);\n"
+            + "    };\n"
+            + "  }\n"
+            + "  var send = XMLHttpRequest.prototype.send;\n"
+            + "  XMLHttpRequest.prototype.send = function () {\n"
+            + "    start();\n"
+            + "    this.addEventListener('loadend', end, { once: true });\n"
+            + "    return send.apply(this, arguments);\n"
+            + "  };\n"
+            + "})();\n";
+
+    private static final String CHECK_SCRIPT = REQUEST_HOOK
+            + "var state = window.__scmReadiness;\n"
+            + "var animations = document.getAnimations ? document.getAnimations().filter(function (a) {\n"
+            + "  return a.playState === 'running' && a.effect && a.effect.getTiming().iterations !== Infinity;\n"
+            + "}).length : 0;\n"
+            + "return [document.readyState, state.pending, performance.now() - state.last, animations];";
+
+    private static final Map<WebDriver, NetworkTracker> trackers = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Starts request tracking for a new browser session, so requests made during the very first
+     * navigation are already counted. Called by {@link DriverManager} for every session it creates.
+     */
+    public static void attach(WebDriver driver) {
+        tracker(driver);
+    }
+
+    /**
+     * Waits for all conditions with the default timeout.
+     * @return true if the page became ready, false if the timeout elapsed first (a warning is logged)
+     */
+    public static boolean await(WebDriver driver) {
+        return await(driver, DEFAULT_TIMEOUT, ALL);
+    }
+
+    public static boolean await(WebDriver driver, Duration timeout, Condition... conditions) {
+        return await(driver, timeout, conditions.length == 0 ? ALL : EnumSet.of(conditions[0], conditions));
+    }
+
+    public static boolean await(WebDriver driver, Duration timeout, Set<Condition> conditions) {
+        NetworkTracker tracker = conditions.contains(Condition.NETWORK_IDLE) ? tracker(driver) : null;
+        long start = System.nanoTime();
+        Object[] lastState = new Object[1];
+        boolean ready = Waits.optional(driver, "page ready " + conditions, timeout, d -> {
+            Object state = ((JavascriptExecutor) d).executeScript(CHECK_SCRIPT);
+            lastState[0] = state;
+            return isReady(state, conditions, tracker);
+        }).isPresent();
+        if (ready) {
+            NavigationTiming.collect(driver);
+        } else {
+            System.out.println("[PageReadiness] ⚠ Page not ready after " + (System.nanoTime() - start) / 1_000_000
+                    + " ms " + conditions + ", last state [readyState, pendingRequests, idleMs, animations]: "
+                    + lastState[0] + (tracker != null ? ", in-flight network requests: " + tracker.inFlight() : ""));
+        }
+        return ready;
+    }
+
+    private static boolean isReady(Object state, Set<Condition> conditions, NetworkTracker tracker) {
+        if (!(state instanceof List<?> values) || values.size() < 4) {
+            return false;
+        }
+        if (conditions.contains(Condition.DOCUMENT_READY) && !"complete".equals(values.get(0))) {
+            return false;
+        }
+        long pending = ((Number) values.get(1)).longValue();
+        double idleMillis = ((Number) values.get(2)).doubleValue();
+        if (conditions.contains(Condition.NO_PENDING_REQUESTS) && pending > 0) {
+            return false;
+        }
+        if (conditions.contains(Condition.NETWORK_IDLE)) {
+            boolean idle = tracker != null && tracker.isActive()
+                    ? tracker.isIdle()
+                    : pending == 0 && idleMillis >= QUIET_MILLIS;
+            if (!idle) {
+                return false;
+            }
+        }
+        return !conditions.contains(Condition.NO_ANIMATIONS) || ((Number) values.get(3)).longValue() == 0;
+    }
+
+    private static NetworkTracker tracker(WebDriver driver) {
+        synchronized (trackers) {
+            return trackers.computeIfAbsent(driver, NetworkTracker::new);
+        }
+    }
+
+    /**
+     * Tracks in-flight requests of one browser session from DevTools network events.
+     * Raw event names are used so no version-specific DevTools classes are needed.
+     */
+    private static class NetworkTracker {
+        private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+        private volatile long lastActivity = System.nanoTime();
+        private boolean active = false;
+
+        NetworkTracker(WebDriver driver) {
+            if (driver instanceof HasCdp cdp) {
+                try {
+                    cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", REQUEST_HOOK));
+                } catch (Exception e) {
+                    System.err.println("[PageReadiness] ⚠ Could not register request hook: " + e.getMessage());
+                }
+            }
+            Optional<DevTools> devTools = driver instanceof HasDevTools hasDevTools
+                    ? hasDevTools.maybeGetDevTools() : Optional.empty();
+            if (devTools.isEmpty()) {
+                return;
+            }
+            try {
+                DevTools tools = devTools.get();
+                tools.createSessionIfThereIsNotOne();
+                tools.send(new Command<>("Network.enable", Map.of()));
+                tools.addListener(new Event<>("Network.requestWillBeSent", NetworkTracker::requestId), this::started);
+                tools.addListener(new Event<>("Network.loadingFinished", NetworkTracker::requestId), this::finished);
+                tools.addListener(new Event<>("Network.loadingFailed", NetworkTracker::requestId), this::finished);
+                active = true;
+            } catch (Exception e) {
+                System.err.println("[PageReadiness] ⚠ DevTools network tracking unavailable, using in-page counter: "
+                        + e.getMessage());
+            }
+        }
+
+        boolean isActive() {
+            return active;
+        }
+
+        boolean isIdle() {
+            long now = System.nanoTime();
+            long cutoff = now - IGNORE_AFTER_MILLIS * 1_000_000;
+            inFlight.values().removeIf(started -> started < cutoff);
+            return inFlight.isEmpty() && now - lastActivity >= QUIET_MILLIS * 1_000_000;
+        }
+
+        int inFlight() {
+            return inFlight.size();
+        }
+
+        private void started(String requestId) {
+            lastActivity = System.nanoTime();
+            if (requestId != null) {
+                inFlight.put(requestId, lastActivity);
+            }
+        }
+
+        private void finished(String requestId) {
+            lastActivity = System.nanoTime();
+            if (requestId != null) {
+                inFlight.remove(requestId);
+            }
+        }
+
+        private static String requestId(JsonInput input) {
+            String requestId = null;
+            input.beginObject();
+            while (input.hasNext()) {
+                if ("requestId".equals(input.nextName())) {
+                    requestId = input.nextString();
+                } else {
+                    input.skipValue();
+                }
+            }
+            input.endObject();
+            return requestId;
+        }
+    }
+}
@@ -1,59 +1,146 @@
 package com.scm.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 public class ReportGenerator {
     
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // JSON attachments that are rendered rather than skipped
+    static final Set<String> RENDERED_JSON = Set.of(Spans.ATTACHMENT_NAME, Samples.ATTACHMENT_NAME);
+    static final String FEATURE_CARD_END = "        </div>\n    </div>\n</div>\n";
+    private static final int HISTOGRAM_BUCKETS = 20;
     
-    public static void generateFancyHTMLReport(String jsonReportPath, String outputPath) {
+    /**
+     * Renders the HTML report and builds the {@link ReportModel} in a single pass over cucumber.json.
+     * @return the report model, or null if the report could not be generated
+     */
+    public static ReportModel generateFancyHTMLReport(String jsonReportPath, String outputPath) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
             File jsonFile = new File(jsonReportPath);
             
             if (!jsonFile.exists()) {
                 System.err.println("JSON report not found: " + jsonReportPath);
-                return;
+                return null;
             }
             
-            JsonNode rootNode = mapper.readTree(jsonFile);
-            String html = generateHTML(rootNode);
-            
             // Ensure directory exists
             File outputFile = new File(outputPath);
             outputFile.getParentFile().mkdirs();
             
-            try (FileWriter writer = new FileWriter(outputFile)) {
-                writer.write(html);
+            // Feature cards are rendered while cucumber.json is streamed, one feature at a time.
+            // The stats dashboard above them is only known at the end, so cards go to a temp file first.
+            File featuresFile = File.createTempFile("report-features", ".html", outputFile.getParentFile());
+            ScreenshotStore screenshots = new ScreenshotStore(outputFile.getParentFile().toPath());
+            FragmentCache fragments = FragmentCache.isEnabled()
+                    ? new FragmentCache(outputFile.getParentFile().toPath()) : null;
+            ReportModel model;
+            try {
+                ReportModel.Builder builder = new ReportModel.Builder();
+                LatencyAnalytics analytics = new LatencyAnalytics();
+                FeatureSink aggregate = feature -> {
+                    addToModel(builder, feature);
+                    analytics.add(feature);
+                };
+                try (Writer featuresWriter = new BufferedWriter(new FileWriter(featuresFile));
+                     CardWriter cards = new CardWriter(featuresWriter, fragments)) {
+                    if (fragments != null) {
+                        streamFeaturesIncremental(jsonFile, screenshots, fragments, aggregate, cards);
+                    } else {
+                        streamFeatures(jsonFile, screenshots, feature -> {
+                            aggregate.accept(feature);
+                            cards.write(feature, null);
+                        });
+                    }
+                    cards.flush();
+                }
+                model = builder.build();
+                if (fragments != null) {
+                    fragments.prune();
+                }
+                
+                try (Writer writer = new BufferedWriter(new FileWriter(outputFile));
+                     Reader features = new BufferedReader(new FileReader(featuresFile))) {
+                    writeHTML(writer, model.stats(), analytics, features, 0);
+                }
+            } finally {
+                featuresFile.delete();
             }
             
             System.out.println("✨ Fancy HTML report generated: " + outputPath);
+            if (screenshots.getStoredCount() + screenshots.getDeduplicatedCount() > 0) {
+                System.out.println("   Screenshots: " + screenshots.getStoredCount() + " stored, "
+                        + screenshots.getDeduplicatedCount() + " duplicates skipped");
+            }
+            if (fragments != null) {
+                System.out.println("   Features: " + fragments.getHits() + " reused from cache, "
+                        + fragments.getMisses() + " rendered");
+            }
+            return model;
         } catch (IOException e) {
             System.err.println("Error generating report: " + e.getMessage());
             e.printStackTrace();
+            return null;
         }
     }
     
-    private static String generateHTML(JsonNode rootNode) {
-        StringBuilder html = new StringBuilder();
-        
-        // Calculate statistics
-        ReportStats stats = calculateStats(rootNode);
-        List<FeatureData> features = parseFeatures(rootNode);
-        
+    /**
+     * Builds the {@link ReportModel} only, without rendering HTML or extracting screenshots.
+     */
+    public static ReportModel buildModel(String jsonReportPath) throws IOException {
+        ReportModel.Builder builder = new ReportModel.Builder();
+        streamFeatures(new File(jsonReportPath), null, feature -> addToModel(builder, feature));
+        return builder.build();
+    }
+    
+    static void addToModel(ReportModel.Builder builder, FeatureData feature) {
+        for (ScenarioData scenario : feature.scenarios) {
+            builder.scenario(scenario.status, scenario.tags, scenario.duration);
+        }
+        builder.endFeature(feature.name, feature.uri, feature.status);
+    }
+    
+    /**
+     * @param analytics      rendered above the filters unless null or empty
+     * @param features       the rendered feature cards
+     * @param refreshSeconds if positive, the page reloads itself at this interval (live snapshots)
+     */
+    static void writeHTML(Writer html, ReportModel.Stats stats, LatencyAnalytics analytics, Reader features,
+                          int refreshSeconds) throws IOException {
         html.append("<!DOCTYPE html>\n");
         html.append("<html lang=\"en\">\n");
         html.append("<head>\n");
         html.append("    <meta charset=\"UTF-8\">\n");
         html.append("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n");
+        if (refreshSeconds > 0) {
+            html.append("    <meta http-equiv=\"refresh\" content=\"").append(String.valueOf(refreshSeconds)).append("\">\n");
+        }
         html.append("    <title>Test Report - Interactive Dashboard</title>\n");
         html.append(generateStyles());
         html.append("</head>\n");
@@ -65,11 +152,18 @@ public class ReportGenerator {
         // Statistics Dashboard
         html.append(generateStatsDashboard(stats));
         
+        // Latency Analytics
+        if (analytics != null && !analytics.isEmpty()) {
+            html.append(generateAnalytics(analytics));
+        }
+        
         // Filters
         html.append(generateFilters());
         
         // Features Section
-        html.append(generateFeaturesSection(features));
+        html.append("<div class=\"features-section\" id=\"featuresSection\">\n");
+        features.transferTo(html);
+        html.append("</div>\n");
         
         // Footer
         html.append(generateFooter());
@@ -77,8 +171,6 @@ public class ReportGenerator {
         html.append(generateScripts());
         html.append("</body>\n");
         html.append("</html>");
-        
-        return html.toString();
     }
     
     private static String generateStyles() {
@@ -128,6 +220,18 @@ public class ReportGenerator {
         sb.append("                .search-box { flex: 1; min-width: 200px; padding: 12px 20px; border: 2px solid #e0e0e0; ");
         sb.append("border-radius: 25px; font-size: 1em; transition: border-color 0.3s ease; }\n");
         sb.append("                .search-box:focus { outline: none; border-color: #667eea; }\n");
+        sb.append("                .analytics { background: white; padding: 20px 25px; border-radius: 15px; margin-bottom: 30px; ");
+        sb.append("box-shadow: 0 5px 20px rgba(0,0,0,0.1); }\n");
+        sb.append("                .analytics summary { font-size: 1.5em; font-weight: bold; cursor: pointer; }\n");
+        sb.append("                .analytics-grid { display: grid; grid-template-columns: repeat(auto-fit, minmax(450px, 1fr)); gap: 20px; }\n");
+        sb.append("                .analytics-panel { margin-top: 20px; overflow-x: auto; }\n");
+        sb.append("                .analytics-panel h3 { font-size: 1.05em; color: #555; margin-bottom: 10px; }\n");
+        sb.append("                .analytics-table { width: 100%; border-collapse: collapse; font-size: 0.9em; }\n");
+        sb.append("                .analytics-table th, .analytics-table td { padding: 6px 10px; text-align: left; border-bottom: 1px solid #eee; }\n");
+        sb.append("                .analytics-table th { color: #666; font-weight: 600; }\n");
+        sb.append("                .analytics-table .num { text-align: right; font-variant-numeric: tabular-nums; white-space: nowrap; }\n");
+        sb.append("                .analytics-table .where { color: #888; font-size: 0.9em; }\n");
+        sb.append("                .histogram.compact { height: 24px; min-width: 160px; margin-top: 0; }\n");
         sb.append("                .features-section { display: flex; flex-direction: column; gap: 20px; }\n");
         sb.append("                .feature-card { background: white; border-radius: 15px; box-shadow: 0 5px 20px rgba(0,0,0,0.1); ");
         sb.append("overflow: hidden; transition: all 0.3s ease; }\n");
@@ -154,6 +258,13 @@ public class ReportGenerator {
         sb.append("                .scenario-item.passed { border-left-color: #4caf50; }\n");
         sb.append("                .scenario-item.failed { border-left-color: #f44336; }\n");
         sb.append("                .scenario-item.skipped { border-left-color: #ff9800; }\n");
+        sb.append("                .scenario-item.flaky { border-left-color: #9c27b0; background: #faf5fc; }\n");
+        sb.append("                .flaky-badge { padding: 4px 12px; background: #9c27b0; color: white; border-radius: 12px; ");
+        sb.append("font-size: 0.8em; font-weight: 600; margin-left: 10px; }\n");
+        sb.append("                .attempts { margin-top: 10px; padding: 10px 15px; background: #f5f7fa; border-radius: 5px; font-size: 0.85em; }\n");
+        sb.append("                .attempt-item { display: flex; gap: 10px; padding: 2px 0; color: #555; }\n");
+        sb.append("                .attempt-item.failed { color: #c62828; }\n");
+        sb.append("                .attempt-error { flex: 1; overflow: hidden; text-overflow: ellipsis; white-space: nowrap; }\n");
         sb.append("                .scenario-header { display: flex; justify-content: space-between; align-items: center; margin-bottom: 15px; }\n");
         sb.append("                .scenario-name { font-size: 1.2em; font-weight: 600; color: #333; }\n");
         sb.append("                .scenario-duration { color: #666; font-size: 0.9em; }\n");
@@ -169,6 +280,14 @@ public class ReportGenerator {
         sb.append("                .step-keyword { font-weight: 600; min-width: 80px; }\n");
         sb.append("                .step-text { flex: 1; }\n");
         sb.append("                .step-duration { color: #666; font-size: 0.85em; }\n");
+        sb.append("                .spans { margin-top: 10px; padding: 10px 15px; background: #f5f7fa; border-radius: 5px; font-size: 0.85em; }\n");
+        sb.append("                .span-item { display: flex; gap: 10px; padding: 2px 0; color: #555; }\n");
+        sb.append("                .span-name { flex: 1; }\n");
+        sb.append("                .span-duration { color: #666; font-variant-numeric: tabular-nums; }\n");
+        sb.append("                .distributions { margin-top: 10px; padding: 10px 15px; background: #f5f7fa; border-radius: 5px; font-size: 0.85em; }\n");
+        sb.append("                .distribution + .distribution { margin-top: 10px; }\n");
+        sb.append("                .histogram { display: flex; align-items: flex-end; gap: 2px; height: 40px; margin-top: 4px; }\n");
+        sb.append("                .histogram-bar { flex: 1; background: #667eea; border-radius: 2px 2px 0 0; }\n");
         sb.append("                .error-message { background: #ffebee; border-left: 4px solid #f44336; padding: 15px; ");
         sb.append("margin-top: 10px; border-radius: 5px; font-family: 'Courier New', monospace; font-size: 0.9em; ");
         sb.append("color: #c62828; white-space: pre-wrap; }\n");
@@ -187,7 +306,7 @@ public class ReportGenerator {
         return sb.toString();
     }
     
-    private static String generateHeader(ReportStats stats) {
+    private static String generateHeader(ReportModel.Stats stats) {
         StringBuilder sb = new StringBuilder();
         sb.append("            <div class=\"header\">\n");
         sb.append("                <h1>🧪 Test Execution Report</h1>\n");
@@ -196,28 +315,28 @@ public class ReportGenerator {
         return sb.toString();
     }
     
-    private static String generateStatsDashboard(ReportStats stats) {
-        double passRate = stats.total > 0 ? (stats.passed * 100.0 / stats.total) : 0;
+    private static String generateStatsDashboard(ReportModel.Stats stats) {
+        double passRate = stats.passRate();
         StringBuilder sb = new StringBuilder();
         sb.append("            <div class=\"stats-dashboard\">\n");
         sb.append("                <div class=\"stat-card total\">\n");
         sb.append("                    <div class=\"icon\">📊</div>\n");
-        sb.append("                    <div class=\"value\">").append(stats.total).append("</div>\n");
+        sb.append("                    <div class=\"value\">").append(stats.total()).append("</div>\n");
         sb.append("                    <div class=\"label\">Total Scenarios</div>\n");
         sb.append("                </div>\n");
         sb.append("                <div class=\"stat-card passed\">\n");
         sb.append("                    <div class=\"icon\">✅</div>\n");
-        sb.append("                    <div class=\"value\">").append(stats.passed).append("</div>\n");
+        sb.append("                    <div class=\"value\">").append(stats.passed()).append("</div>\n");
         sb.append("                    <div class=\"label\">Passed</div>\n");
         sb.append("                </div>\n");
         sb.append("                <div class=\"stat-card failed\">\n");
         sb.append("                    <div class=\"icon\">❌</div>\n");
-        sb.append("                    <div class=\"value\">").append(stats.failed).append("</div>\n");
+        sb.append("                    <div class=\"value\">").append(stats.failed()).append("</div>\n");
         sb.append("                    <div class=\"label\">Failed</div>\n");
         sb.append("                </div>\n");
         sb.append("                <div class=\"stat-card skipped\">\n");
         sb.append("                    <div class=\"icon\">⏭️</div>\n");
-        sb.append("                    <div class=\"value\">").append(stats.skipped).append("</div>\n");
+        sb.append("                    <div class=\"value\">").append(stats.skipped()).append("</div>\n");
         sb.append("                    <div class=\"label\">Skipped</div>\n");
         sb.append("                </div>\n");
         sb.append("                <div class=\"stat-card percentage\">\n");
@@ -229,6 +348,92 @@ public class ReportGenerator {
         return sb.toString();
     }
     
+    private static String generateAnalytics(LatencyAnalytics analytics) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("            <details class=\"analytics\" open>\n");
+        sb.append("                <summary>⏱️ Latency Analytics</summary>\n");
+        sb.append("                <div class=\"analytics-grid\">\n");
+        
+        sb.append("                    <div class=\"analytics-panel\">\n");
+        sb.append("                        <h3>Slowest steps</h3>\n");
+        sb.append("                        <table class=\"analytics-table\">\n");
+        for (LatencyAnalytics.StepTiming step : analytics.slowestSteps()) {
+            sb.append("                            <tr><td>").append(escapeHtml(step.keyword())).append(escapeHtml(step.text()))
+                    .append("<div class=\"where\">").append(escapeHtml(step.scenario())).append(" · ").append(escapeHtml(step.feature()))
+                    .append("</div></td><td class=\"num\">").append(formatDuration(step.seconds())).append("</td></tr>\n");
+        }
+        sb.append("                        </table>\n");
+        sb.append("                    </div>\n");
+        
+        sb.append("                    <div class=\"analytics-panel\">\n");
+        sb.append("                        <h3>Slowest scenarios</h3>\n");
+        sb.append("                        <table class=\"analytics-table\">\n");
+        for (LatencyAnalytics.ScenarioTiming scenario : analytics.slowestScenarios()) {
+            sb.append("                            <tr><td>").append(escapeHtml(scenario.name()))
+                    .append("<div class=\"where\">").append(escapeHtml(scenario.feature()))
+                    .append("</div></td><td class=\"num\">").append(formatDuration(scenario.seconds())).append("</td></tr>\n");
+        }
+        sb.append("                        </table>\n");
+        sb.append("                    </div>\n");
+        sb.append("                </div>\n");
+        
+        // One row per step definition, the one that cost the most time in total first
+        sb.append("                <div class=\"analytics-panel\">\n");
+        sb.append("                    <h3>Time per step definition</h3>\n");
+        sb.append("                    <table class=\"analytics-table\">\n");
+        sb.append("                        <tr><th>Step</th><th class=\"num\">Runs</th><th class=\"num\">Total</th>");
+        sb.append("<th class=\"num\">Mean</th><th class=\"num\">Std dev</th><th class=\"num\">Max</th><th>Distribution</th></tr>\n");
+        for (LatencyAnalytics.StepGroup group : analytics.stepGroups()) {
+            sb.append("                        <tr><td>").append(escapeHtml(group.text())).append("</td>");
+            sb.append("<td class=\"num\">").append(group.count()).append("</td>");
+            sb.append("<td class=\"num\">").append(formatDuration(group.totalSeconds())).append("</td>");
+            sb.append("<td class=\"num\">").append(formatDuration(group.meanSeconds())).append("</td>");
+            sb.append("<td class=\"num\">").append(formatDuration(group.stdDevSeconds())).append("</td>");
+            sb.append("<td class=\"num\">").append(formatDuration(group.maxSeconds())).append("</td>");
+            sb.append("<td>").append(bucketHistogram(group.histogram())).append("</td></tr>\n");
+        }
+        sb.append("                    </table>\n");
+        sb.append("                </div>\n");
+        
+        List<LatencyAnalytics.Outlier> outliers = analytics.outliers();
+        sb.append("                <div class=\"analytics-panel\">\n");
+        sb.append("                    <h3>Outliers (more than ").append(String.format("%.1f", LatencyAnalytics.getOutlierSigma()))
+                .append(" standard deviations above their step's mean)</h3>\n");
+        if (outliers.isEmpty()) {
+            sb.append("                    <p class=\"where\">None</p>\n");
+        } else {
+            sb.append("                    <table class=\"analytics-table\">\n");
+            for (LatencyAnalytics.Outlier outlier : outliers) {
+                LatencyAnalytics.StepTiming step = outlier.step();
+                sb.append("                        <tr><td>").append(escapeHtml(step.keyword())).append(escapeHtml(step.text()))
+                        .append("<div class=\"where\">").append(escapeHtml(step.scenario())).append(" · ").append(escapeHtml(step.feature()))
+                        .append("</div></td><td class=\"num\">").append(formatDuration(step.seconds())).append("</td>");
+                sb.append("<td class=\"num\">mean ").append(formatDuration(outlier.meanSeconds()))
+                        .append(" ± ").append(formatDuration(outlier.stdDevSeconds())).append("</td>");
+                sb.append("<td class=\"num\">").append(String.format("%.1f σ", outlier.sigmas())).append("</td></tr>\n");
+            }
+            sb.append("                    </table>\n");
+        }
+        sb.append("                </div>\n");
+        sb.append("            </details>\n");
+        return sb.toString();
+    }
+    
+    /**
+     * Bars for the fixed {@link LatencyAnalytics#BUCKET_BOUNDS} buckets; hover a bar for its range and count.
+     */
+    private static String bucketHistogram(int[] counts) {
+        int highest = Math.max(1, Arrays.stream(counts).max().orElse(1));
+        double[] bounds = LatencyAnalytics.BUCKET_BOUNDS;
+        StringBuilder sb = new StringBuilder("<div class=\"histogram compact\">");
+        for (int i = 0; i < counts.length; i++) {
+            String range = i < bounds.length ? "≤ " + formatDuration(bounds[i]) : "> " + formatDuration(bounds[bounds.length - 1]);
+            sb.append("<div class=\"histogram-bar\" style=\"height: ").append(counts[i] * 100 / highest)
+                    .append("%\" title=\"").append(range).append(": ").append(counts[i]).append("\"></div>");
+        }
+        return sb.append("</div>").toString();
+    }
+    
     private static String generateFilters() {
         StringBuilder sb = new StringBuilder();
         sb.append("            <div class=\"filters\">\n");
@@ -241,19 +446,33 @@ public class ReportGenerator {
         return sb.toString();
     }
     
-    private static String generateFeaturesSection(List<FeatureData> features) {
-        StringBuilder html = new StringBuilder("<div class=\"features-section\" id=\"featuresSection\">\n");
-        
-        for (FeatureData feature : features) {
-            html.append(generateFeatureCard(feature));
+    static String generateFeatureCard(FeatureData feature) {
+        StringBuilder html = new StringBuilder(4096);
+        appendFeatureCardStart(html, feature);
+        for (ScenarioData scenario : feature.scenarios) {
+            appendScenarioItem(html, scenario);
         }
-        
-        html.append("</div>\n");
+        html.append(FEATURE_CARD_END);
+        return html.toString();
+    }
+    
+    /**
+     * The header of a feature card, from the feature's counts; its scenarios are not needed.
+     * {@link LiveReportPlugin} puts the card together from this, {@link #scenarioItem} and {@link #FEATURE_CARD_END}.
+     */
+    static String featureCardStart(FeatureData feature) {
+        StringBuilder html = new StringBuilder(1024);
+        appendFeatureCardStart(html, feature);
+        return html.toString();
+    }
+    
+    static String scenarioItem(ScenarioData scenario) {
+        StringBuilder html = new StringBuilder(2048);
+        appendScenarioItem(html, scenario);
         return html.toString();
     }
     
-    private static String generateFeatureCard(FeatureData feature) {
-        StringBuilder html = new StringBuilder();
+    private static void appendFeatureCardStart(StringBuilder html, FeatureData feature) {
         html.append("<div class=\"feature-card\" data-status=\"").append(feature.status).append("\">\n");
         html.append("    <div class=\"feature-header\" onclick=\"toggleFeature(this)\">\n");
         html.append("        <div class=\"feature-title\">").append(escapeHtml(feature.name)).append("</div>\n");
@@ -268,29 +487,26 @@ public class ReportGenerator {
         if (feature.skipped > 0) {
             html.append("            <span class=\"feature-stat skipped\">⏭️ ").append(feature.skipped).append("</span>\n");
         }
+        if (feature.flaky > 0) {
+            html.append("            <span class=\"feature-stat flaky\" title=\"Passed on rerun\">🔁 ").append(feature.flaky).append("</span>\n");
+        }
         
         html.append("            <span class=\"expand-icon\">▼</span>\n");
         html.append("        </div>\n");
         html.append("    </div>\n");
         html.append("    <div class=\"feature-content\">\n");
         html.append("        <div class=\"scenarios-list\">\n");
-        
-        for (ScenarioData scenario : feature.scenarios) {
-            html.append(generateScenarioItem(scenario));
-        }
-        
-        html.append("        </div>\n");
-        html.append("    </div>\n");
-        html.append("</div>\n");
-        
-        return html.toString();
     }
     
-    private static String generateScenarioItem(ScenarioData scenario) {
-        StringBuilder html = new StringBuilder();
-        html.append("<div class=\"scenario-item ").append(scenario.status).append("\">\n");
+    // Scenario and step items append into the card's buffer rather than returning their own strings
+    private static void appendScenarioItem(StringBuilder html, ScenarioData scenario) {
+        html.append("<div class=\"scenario-item ").append(scenario.status).append(scenario.isFlaky() ? " flaky" : "").append("\">\n");
         html.append("    <div class=\"scenario-header\">\n");
-        html.append("        <div class=\"scenario-name\">").append(escapeHtml(scenario.name)).append("</div>\n");
+        html.append("        <div class=\"scenario-name\">").append(escapeHtml(scenario.name));
+        if (scenario.isFlaky()) {
+            html.append("<span class=\"flaky-badge\">🔁 Flaky: passed on attempt ").append(scenario.attempts.size()).append("</span>");
+        }
+        html.append("</div>\n");
         html.append("        <div class=\"scenario-duration\">⏱️ ").append(formatDuration(scenario.duration)).append("</div>\n");
         html.append("    </div>\n");
         
@@ -304,10 +520,40 @@ public class ReportGenerator {
         
         html.append("    <div class=\"steps-list\">\n");
         for (StepData step : scenario.steps) {
-            html.append(generateStepItem(step));
+            appendStepItem(html, step);
         }
         html.append("    </div>\n");
         
+        if (!scenario.spans.isEmpty()) {
+            html.append("    <div class=\"spans\">\n");
+            for (SpanData span : scenario.spans) {
+                html.append("        <div class=\"span-item\" style=\"padding-left: ").append(span.depth * 16).append("px\">");
+                html.append("<span class=\"span-name\">⏱ ").append(escapeHtml(span.name)).append("</span>");
+                html.append("<span class=\"span-duration\">").append(formatDuration(span.durationNanos / 1_000_000_000.0)).append("</span></div>\n");
+            }
+            html.append("    </div>\n");
+        }
+        
+        if (!scenario.distributions.isEmpty()) {
+            html.append("    <div class=\"distributions\">\n");
+            for (Samples.Distribution distribution : scenario.distributions) {
+                appendDistribution(html, distribution);
+            }
+            html.append("    </div>\n");
+        }
+        
+        if (scenario.attempts.size() > 1) {
+            html.append("    <div class=\"attempts\">\n");
+            for (int i = 0; i < scenario.attempts.size(); i++) {
+                AttemptData attempt = scenario.attempts.get(i);
+                html.append("        <div class=\"attempt-item ").append(escapeHtml(attempt.status)).append("\">");
+                html.append("<span>Attempt ").append(i + 1).append(": ").append(escapeHtml(attempt.status)).append("</span>");
+                html.append("<span class=\"attempt-error\">").append(attempt.errorMessage == null ? "" : escapeHtml(firstLine(attempt.errorMessage))).append("</span>");
+                html.append("<span class=\"span-duration\">").append(formatDuration(attempt.duration)).append("</span></div>\n");
+            }
+            html.append("    </div>\n");
+        }
+        
         if (scenario.errorMessage != null && !scenario.errorMessage.isEmpty()) {
             html.append("    <div class=\"error-message\">").append(escapeHtml(scenario.errorMessage)).append("</div>\n");
         }
@@ -315,23 +561,50 @@ public class ReportGenerator {
         if (!scenario.screenshots.isEmpty()) {
             html.append("    <div class=\"screenshots\">\n");
             for (String screenshot : scenario.screenshots) {
-                html.append("        <img src=\"data:image/png;base64,").append(screenshot).append("\" class=\"screenshot\" onclick=\"expandImage(this)\">\n");
+                html.append("        <img src=\"").append(escapeHtml(screenshot)).append("\" loading=\"lazy\" decoding=\"async\" class=\"screenshot\" onclick=\"expandImage(this)\">\n");
             }
             html.append("    </div>\n");
         }
         
         html.append("</div>\n");
-        return html.toString();
     }
     
-    private static String generateStepItem(StepData step) {
-        StringBuilder sb = new StringBuilder();
+    private static void appendDistribution(StringBuilder html, Samples.Distribution distribution) {
+        html.append("        <div class=\"distribution\">\n");
+        html.append("            <div class=\"span-item\"><span class=\"span-name\">📊 ").append(escapeHtml(distribution.name()))
+                .append(" (").append(distribution.samplesNanos().size()).append(" runs");
+        if (distribution.warmups() > 0) {
+            html.append(", ").append(distribution.warmups()).append(" warm-up");
+        }
+        html.append(")</span><span class=\"span-duration\">");
+        for (double percentile : new double[] {50, 95, 99, 100}) {
+            html.append(Samples.label(percentile)).append(" ").append(formatDuration(distribution.percentile(percentile) / 1_000_000_000.0));
+            html.append(percentile < 100 ? " · " : "");
+        }
+        html.append("</span></div>\n");
+        
+        // Equal-width buckets from the fastest to the slowest sample; hover a bar for its range and count
+        int buckets = distribution.max() == distribution.min() ? 1 : Math.min(HISTOGRAM_BUCKETS, distribution.samplesNanos().size());
+        int[] counts = distribution.histogram(buckets);
+        int highest = Arrays.stream(counts).max().orElse(1);
+        double min = distribution.min() / 1_000_000_000.0;
+        double width = Math.max(1, distribution.max() - distribution.min()) / 1_000_000_000.0 / buckets;
+        html.append("            <div class=\"histogram\">");
+        for (int i = 0; i < counts.length; i++) {
+            html.append("<div class=\"histogram-bar\" style=\"height: ").append(counts[i] * 100 / highest).append("%\" title=\"")
+                    .append(formatDuration(min + i * width)).append(" - ").append(formatDuration(min + (i + 1) * width))
+                    .append(": ").append(counts[i]).append("\"></div>");
+        }
+        html.append("</div>\n");
+        html.append("        </div>\n");
+    }
+    
+    private static void appendStepItem(StringBuilder sb, StepData step) {
         sb.append("            <div class=\"step-item ").append(step.status).append("\">\n");
         sb.append("                <span class=\"step-keyword\">").append(escapeHtml(step.keyword)).append("</span>\n");
         sb.append("                <span class=\"step-text\">").append(escapeHtml(step.text)).append("</span>\n");
         sb.append("                <span class=\"step-duration\">").append(formatDuration(step.duration)).append("</span>\n");
         sb.append("            </div>\n");
-        return sb.toString();
     }
     
     private static String generateFooter() {
@@ -405,79 +678,292 @@ public class ReportGenerator {
         return sb.toString();
     }
     
-    private static ReportStats calculateStats(JsonNode rootNode) {
-        ReportStats stats = new ReportStats();
-        
-        if (rootNode.isArray()) {
-            for (JsonNode feature : rootNode) {
-                JsonNode elements = feature.get("elements");
-                if (elements != null && elements.isArray()) {
-                    for (JsonNode element : elements) {
-                        if ("scenario".equals(element.get("type").asText())) {
-                            stats.total++;
-                            String status = getScenarioStatus(element);
-                            if ("passed".equals(status)) {
-                                stats.passed++;
-                            } else if ("failed".equals(status)) {
-                                stats.failed++;
-                            } else {
-                                stats.skipped++;
-                            }
-                        }
-                    }
+    /**
+     * Streams a cucumber.json array and hands each feature to the sink as soon as it is parsed.
+     * Only one feature (and one scenario element tree) is held in memory at a time.
+     */
+    private static void streamFeatures(File jsonFile, ScreenshotStore screenshots, FeatureSink sink) throws IOException {
+        try (JsonParser parser = MAPPER.createParser(jsonFile)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sink.accept(readFeature(parser, screenshots));
+            }
+        }
+    }
+    
+    /**
+     * Like {@link #streamFeatures}, but every feature is first skipped over and hashed by its raw bytes.
+     * A feature found in the fragment cache reuses its rendered card and summary without being parsed;
+     * only new or changed features are parsed (from their byte offset) and rendered.
+     */
+    private static void streamFeaturesIncremental(File jsonFile, ScreenshotStore screenshots, FragmentCache fragments,
+                                                  FeatureSink aggregate, CardWriter cards) throws IOException {
+        File reportDir = screenshots.getReportDirectory().toFile();
+        try (JsonParser parser = MAPPER.createParser(jsonFile)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                long start = parser.currentTokenLocation().getByteOffset();
+                parser.skipChildren();
+                long end = parser.currentTokenLocation().getByteOffset() + 1;
+                String hash = fragments.hash(jsonFile, start, end);
+                
+                FeatureData cached = fromSummary(fragments.loadSummary(hash), reportDir);
+                if (cached != null) {
+                    fragments.recordHit();
+                    aggregate.accept(cached);
+                    cards.writeRendered(fragments.loadFragment(hash));
+                } else {
+                    fragments.recordMiss();
+                    FeatureData feature = readFeatureAt(jsonFile, start, screenshots);
+                    fragments.saveSummary(hash, toSummary(feature));
+                    aggregate.accept(feature);
+                    cards.write(feature, hash);
                 }
             }
         }
-        
-        return stats;
     }
     
-    private static List<FeatureData> parseFeatures(JsonNode rootNode) {
-        List<FeatureData> features = new ArrayList<>();
+    private static FeatureData readFeatureAt(File jsonFile, long offset, ScreenshotStore screenshots) throws IOException {
+        try (FileChannel channel = FileChannel.open(jsonFile.toPath());
+             JsonParser parser = MAPPER.createParser(Channels.newInputStream(channel.position(offset)))) {
+            parser.nextToken();
+            return readFeature(parser, screenshots);
+        }
+    }
+    
+    /**
+     * What the report model (and a future re-render) needs from a feature, without screenshots data.
+     */
+    private static ObjectNode toSummary(FeatureData feature) {
+        ObjectNode summary = MAPPER.createObjectNode();
+        summary.put("name", feature.name);
+        summary.put("uri", feature.uri);
+        summary.put("status", feature.status);
+        summary.put("passed", feature.passed);
+        summary.put("failed", feature.failed);
+        summary.put("skipped", feature.skipped);
+        summary.put("flaky", feature.flaky);
+        ArrayNode scenarios = summary.putArray("scenarios");
+        for (ScenarioData scenario : feature.scenarios) {
+            ObjectNode s = scenarios.addObject();
+            s.put("name", scenario.name);
+            s.put("status", scenario.status);
+            s.put("duration", scenario.duration);
+            s.put("errorMessage", scenario.errorMessage);
+            scenario.tags.forEach(s.putArray("tags")::add);
+            scenario.screenshots.forEach(s.putArray("screenshots")::add);
+            ArrayNode spans = s.putArray("spans");
+            for (SpanData span : scenario.spans) {
+                spans.addObject().put("name", span.name).put("depth", span.depth).put("durationNanos", span.durationNanos);
+            }
+            s.set("distributions", MAPPER.valueToTree(scenario.distributions));
+            ArrayNode attempts = s.putArray("attempts");
+            for (AttemptData attempt : scenario.attempts) {
+                attempts.addObject().put("status", attempt.status).put("duration", attempt.duration)
+                        .put("errorMessage", attempt.errorMessage);
+            }
+            ArrayNode steps = s.putArray("steps");
+            for (StepData step : scenario.steps) {
+                ObjectNode st = steps.addObject();
+                st.put("keyword", step.keyword);
+                st.put("text", step.text);
+                st.put("location", step.location);
+                st.put("status", step.status);
+                st.put("duration", step.duration);
+                st.put("errorMessage", step.errorMessage);
+            }
+        }
+        return summary;
+    }
+    
+    /**
+     * @return the feature described by a cached summary, or null if there is none
+     *         or a screenshot it references is gone
+     */
+    private static FeatureData fromSummary(JsonNode summary, File reportDir) {
+        if (summary == null) {
+            return null;
+        }
+        FeatureData feature = new FeatureData();
+        feature.name = summary.path("name").asText();
+        feature.uri = summary.path("uri").textValue();
+        feature.status = summary.path("status").asText();
+        feature.passed = summary.path("passed").asInt();
+        feature.failed = summary.path("failed").asInt();
+        feature.skipped = summary.path("skipped").asInt();
+        feature.flaky = summary.path("flaky").asInt();
+        for (JsonNode s : summary.path("scenarios")) {
+            ScenarioData scenario = new ScenarioData();
+            scenario.name = s.path("name").asText();
+            scenario.status = s.path("status").asText();
+            scenario.duration = s.path("duration").asDouble();
+            scenario.errorMessage = s.path("errorMessage").textValue();
+            s.path("tags").forEach(tag -> scenario.tags.add(tag.asText()));
+            for (JsonNode screenshot : s.path("screenshots")) {
+                if (!new File(reportDir, screenshot.asText()).isFile()) {
+                    return null;
+                }
+                scenario.screenshots.add(screenshot.asText());
+            }
+            for (JsonNode sp : s.path("spans")) {
+                SpanData span = new SpanData();
+                span.name = sp.path("name").asText();
+                span.depth = sp.path("depth").asInt();
+                span.durationNanos = sp.path("durationNanos").asLong();
+                scenario.spans.add(span);
+            }
+            addSamples(scenario, s.get("distributions"));
+            for (JsonNode at : s.path("attempts")) {
+                AttemptData attempt = new AttemptData();
+                attempt.status = at.path("status").asText();
+                attempt.duration = at.path("duration").asDouble();
+                attempt.errorMessage = at.path("errorMessage").textValue();
+                scenario.attempts.add(attempt);
+            }
+            for (JsonNode st : s.path("steps")) {
+                StepData step = new StepData();
+                step.keyword = st.path("keyword").asText();
+                step.text = st.path("text").asText();
+                step.location = st.path("location").textValue();
+                step.status = st.path("status").asText();
+                step.duration = st.path("duration").asDouble();
+                step.errorMessage = st.path("errorMessage").textValue();
+                scenario.steps.add(step);
+            }
+            feature.scenarios.add(scenario);
+        }
+        return feature;
+    }
+    
+    private static FeatureData readFeature(JsonParser parser, ScreenshotStore screenshots) throws IOException {
+        FeatureData feature = new FeatureData();
+        feature.name = "Unnamed Feature";
         
-        if (rootNode.isArray()) {
-            for (JsonNode featureNode : rootNode) {
-                FeatureData feature = new FeatureData();
-                feature.name = featureNode.has("name") ? featureNode.get("name").asText() : "Unnamed Feature";
-                
-                JsonNode elements = featureNode.get("elements");
-                if (elements != null && elements.isArray()) {
-                    for (JsonNode element : elements) {
-                        if ("scenario".equals(element.get("type").asText())) {
-                            ScenarioData scenario = parseScenario(element);
-                            feature.scenarios.add(scenario);
-                            
-                            if ("passed".equals(scenario.status)) {
-                                feature.passed++;
-                            } else if ("failed".equals(scenario.status)) {
-                                feature.failed++;
-                            } else {
-                                feature.skipped++;
-                            }
-                        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            
+            if ("name".equals(field) && value.isScalarValue()) {
+                feature.name = parser.getText();
+            } else if ("uri".equals(field) && value.isScalarValue()) {
+                feature.uri = parser.getText();
+            } else if ("elements".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    JsonNode element = readNode(parser, screenshots);
+                    if ("scenario".equals(element.path("type").asText())) {
+                        feature.add(parseScenario(element));
                     }
                 }
-                
-                // Determine feature status
-                if (feature.failed > 0) {
-                    feature.status = "failed";
-                } else if (feature.passed > 0) {
-                    feature.status = "passed";
+            } else {
+                parser.skipChildren();
+            }
+        }
+        
+        feature.updateStatus();
+        return feature;
+    }
+    
+    /**
+     * Reads the value the parser is positioned on into a tree, except that every
+     * {@code embeddings} array is decoded into the screenshot store on the fly.
+     * Image embeddings become {@code {"mime_type": ..., "path": ...}} nodes; the base64
+     * text never ends up in the tree. JSON attachments the report renders ({@link Spans},
+     * {@link Samples}) are decoded into a {@code "json"} field. With a null store, embeddings are skipped.
+     */
+    private static JsonNode readNode(JsonParser parser, ScreenshotStore screenshots) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            ObjectNode node = MAPPER.createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("embeddings".equals(field) && value == JsonToken.START_ARRAY) {
+                    node.set(field, readEmbeddings(parser, screenshots));
                 } else {
-                    feature.status = "skipped";
+                    node.set(field, readNode(parser, screenshots));
                 }
-                
-                features.add(feature);
             }
+            return node;
         }
-        
-        return features;
+        if (token == JsonToken.START_ARRAY) {
+            ArrayNode node = MAPPER.createArrayNode();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                node.add(readNode(parser, screenshots));
+            }
+            return node;
+        }
+        return parser.readValueAsTree();
+    }
+    
+    private static ArrayNode readEmbeddings(JsonParser parser, ScreenshotStore screenshots) throws IOException {
+        ArrayNode embeddings = MAPPER.createArrayNode();
+        if (screenshots == null) {
+            // Model-only pass: embeddings are not needed
+            parser.skipChildren();
+            return embeddings;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            
+            // "data" usually precedes "mime_type", so decode first and decide once the object is complete
+            String mimeType = "";
+            String name = "";
+            ScreenshotStore.Staged staged = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.VALUE_STRING) {
+                    try {
+                        staged = screenshots.stage(parser);
+                    } catch (IOException e) {
+                        System.err.println("Skipping unreadable embedding: " + e.getMessage());
+                    }
+                } else if ("mime_type".equals(field) && value == JsonToken.VALUE_STRING) {
+                    mimeType = parser.getText();
+                } else if ("name".equals(field) && value == JsonToken.VALUE_STRING) {
+                    name = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            
+            if (staged == null) {
+                continue;
+            }
+            if ("image/png".equals(mimeType)) {
+                ObjectNode embedding = MAPPER.createObjectNode();
+                embedding.put("mime_type", mimeType);
+                embedding.put("path", staged.commit());
+                embeddings.add(embedding);
+            } else if ("application/json".equals(mimeType) && RENDERED_JSON.contains(name)) {
+                ObjectNode embedding = MAPPER.createObjectNode();
+                embedding.put("mime_type", mimeType);
+                embedding.put("name", name);
+                try {
+                    embedding.set("json", MAPPER.readTree(staged.read()));
+                    embeddings.add(embedding);
+                } catch (IOException e) {
+                    System.err.println("Skipping unreadable " + name + " attachment: " + e.getMessage());
+                } finally {
+                    staged.discard();
+                }
+            } else {
+                staged.discard();
+            }
+        }
+        return embeddings;
     }
     
     private static ScenarioData parseScenario(JsonNode element) {
         ScenarioData scenario = new ScenarioData();
         scenario.name = element.has("name") ? element.get("name").asText() : "Unnamed Scenario";
-        scenario.status = getScenarioStatus(element);
         
         // Parse tags
         JsonNode tags = element.get("tags");
@@ -490,47 +976,104 @@ public class ReportGenerator {
             }
         }
         
-        // Parse steps
         JsonNode steps = element.get("steps");
         if (steps != null && steps.isArray()) {
             for (JsonNode step : steps) {
-                StepData stepData = parseStep(step);
-                scenario.steps.add(stepData);
-                
-                if (stepData.duration > 0) {
-                    scenario.duration += stepData.duration;
+                scenario.steps.add(parseStep(step));
+            }
+        }
+        
+        // Collect screenshots attached to the scenario, its steps and its hooks (Hooks.tearDown attaches to "after")
+        // and span timings attached the same way
+        addAttachments(scenario, element.get("embeddings"));
+        for (String section : new String[] {"before", "steps", "after"}) {
+            JsonNode entries = element.get(section);
+            if (entries != null && entries.isArray()) {
+                for (JsonNode entry : entries) {
+                    addAttachments(scenario, entry.get("embeddings"));
                 }
             }
         }
         
-        // Parse error message and screenshots from embeddings
-        JsonNode embeddings = element.get("embeddings");
+        // Scenarios rerun by FailedScenarioRerun carry every attempt, the first run first
+        for (JsonNode at : element.path("attempts")) {
+            AttemptData attempt = new AttemptData();
+            attempt.status = at.path("status").asText("skipped");
+            attempt.duration = at.path("duration").asLong() / 1_000_000_000.0;
+            attempt.errorMessage = at.path("error_message").textValue();
+            scenario.attempts.add(attempt);
+        }
+        
+        scenario.complete();
+        if (steps == null || !steps.isArray()) {
+            scenario.status = "skipped";
+        }
+        return scenario;
+    }
+    
+    private static void addAttachments(ScenarioData scenario, JsonNode embeddings) {
         if (embeddings != null && embeddings.isArray()) {
             for (JsonNode embedding : embeddings) {
-                String mimeType = embedding.has("mime_type") ? embedding.get("mime_type").asText() : "";
-                if ("image/png".equals(mimeType) && embedding.has("data")) {
-                    scenario.screenshots.add(embedding.get("data").asText());
+                addJsonAttachment(scenario, embedding.path("name").asText(), embedding.get("json"));
+                String path = embedding.path("path").asText();
+                // The same image attached twice to one scenario is shown once
+                if (!path.isEmpty() && !scenario.screenshots.contains(path)) {
+                    scenario.screenshots.add(path);
                 }
             }
         }
-        
-        // Get error message from failed step
-        if ("failed".equals(scenario.status)) {
-            for (StepData step : scenario.steps) {
-                if ("failed".equals(step.status) && step.errorMessage != null) {
-                    scenario.errorMessage = step.errorMessage;
-                    break;
-                }
+    }
+    
+    /**
+     * Flattens a {@link Spans.Timing} tree (as JSON) into the scenario's span list, depth first.
+     */
+    static void addSpans(ScenarioData scenario, JsonNode timings, int depth) {
+        if (timings == null || !timings.isArray()) {
+            return;
+        }
+        for (JsonNode timing : timings) {
+            SpanData span = new SpanData();
+            span.name = timing.path("name").asText();
+            span.depth = depth;
+            span.durationNanos = timing.path("durationNanos").asLong();
+            scenario.spans.add(span);
+            addSpans(scenario, timing.get("children"), depth + 1);
+        }
+    }
+    
+    /**
+     * Adds the samples of repeated measurements ({@link Samples.Distribution}s, as JSON) to the scenario.
+     */
+    static void addSamples(ScenarioData scenario, JsonNode distributions) {
+        if (distributions == null || !distributions.isArray()) {
+            return;
+        }
+        for (JsonNode distribution : distributions) {
+            List<Long> samples = new ArrayList<>();
+            distribution.path("samplesNanos").forEach(sample -> samples.add(sample.asLong()));
+            if (!samples.isEmpty()) {
+                scenario.distributions.add(new Samples.Distribution(
+                        distribution.path("name").asText(), distribution.path("warmups").asInt(), samples));
             }
         }
-        
-        return scenario;
+    }
+    
+    /**
+     * Adds a JSON attachment the report knows how to render ({@link Spans}, {@link Samples}) to the scenario.
+     */
+    static void addJsonAttachment(ScenarioData scenario, String name, JsonNode value) {
+        if (Spans.ATTACHMENT_NAME.equals(name)) {
+            addSpans(scenario, value, 0);
+        } else if (Samples.ATTACHMENT_NAME.equals(name)) {
+            addSamples(scenario, value);
+        }
     }
     
     private static StepData parseStep(JsonNode step) {
         StepData stepData = new StepData();
         stepData.keyword = step.has("keyword") ? step.get("keyword").asText() : "";
         stepData.text = step.has("name") ? step.get("name").asText() : "";
+        stepData.location = step.path("match").path("location").textValue();
         
         JsonNode result = step.get("result");
         if (result != null) {
@@ -549,32 +1092,6 @@ public class ReportGenerator {
         return stepData;
     }
     
-    private static String getScenarioStatus(JsonNode element) {
-        JsonNode steps = element.get("steps");
-        if (steps != null && steps.isArray()) {
-            for (JsonNode step : steps) {
-                JsonNode result = step.get("result");
-                if (result != null && result.has("status")) {
-                    String status = result.get("status").asText();
-                    if ("failed".equals(status)) {
-                        return "failed";
-                    }
-                }
-            }
-            // If no step failed, check if all steps passed
-            boolean allPassed = true;
-            for (JsonNode step : steps) {
-                JsonNode result = step.get("result");
-                if (result == null || !"passed".equals(result.get("status").asText())) {
-                    allPassed = false;
-                    break;
-                }
-            }
-            return allPassed ? "passed" : "skipped";
-        }
-        return "skipped";
-    }
-    
     private static String formatDuration(double seconds) {
         if (seconds < 1) {
             return String.format("%.0f ms", seconds * 1000);
@@ -583,6 +1100,11 @@ public class ReportGenerator {
         }
     }
     
+    private static String firstLine(String text) {
+        int end = text.indexOf('\n');
+        return end < 0 ? text : text.substring(0, end);
+    }
+    
     private static String escapeHtml(String text) {
         if (text == null) return "";
         return text.replace("&", "&amp;")
@@ -592,36 +1114,185 @@ public class ReportGenerator {
                    .replace("'", "&#39;");
     }
     
-    // Data classes
-    private static class ReportStats {
-        int total = 0;
-        int passed = 0;
-        int failed = 0;
-        int skipped = 0;
+    /**
+     * Renders feature cards on a fork-join pool and writes them out in input order.
+     * At most a small window of cards is in flight, so memory stays bounded while parsing
+     * continues on the calling thread. {@code -Dreport.render.parallel=false} renders
+     * sequentially; {@code -Dreport.render.threads} sets the pool size. Both modes produce
+     * byte-identical output. Freshly rendered cards are also saved to the fragment cache.
+     */
+    private static class CardWriter implements Closeable {
+        private final Writer out;
+        private final FragmentCache fragments;
+        private final ForkJoinPool pool;
+        private final int window;
+        private final Deque<CompletableFuture<String>> pending = new ArrayDeque<>();
+        
+        CardWriter(Writer out, FragmentCache fragments) {
+            this.out = out;
+            this.fragments = fragments;
+            boolean parallel = !"false".equalsIgnoreCase(System.getProperty("report.render.parallel", "true"));
+            int threads = Integer.getInteger("report.render.threads", Runtime.getRuntime().availableProcessors());
+            this.pool = parallel && threads > 1 ? new ForkJoinPool(threads) : null;
+            this.window = threads * 2;
+        }
+        
+        /**
+         * @param fragmentHash cache key to save the rendered card under, or null to not cache it
+         */
+        void write(FeatureData feature, String fragmentHash) throws IOException {
+            if (pool == null) {
+                out.write(render(feature, fragmentHash));
+                return;
+            }
+            enqueue(CompletableFuture.supplyAsync(() -> render(feature, fragmentHash), pool));
+        }
+        
+        /**
+         * Writes an already rendered card (from the fragment cache) in its place in the sequence.
+         */
+        void writeRendered(String card) throws IOException {
+            if (pool == null) {
+                out.write(card);
+                return;
+            }
+            enqueue(CompletableFuture.completedFuture(card));
+        }
+        
+        void flush() throws IOException {
+            while (!pending.isEmpty()) {
+                out.write(pending.removeFirst().join());
+            }
+        }
+        
+        private void enqueue(CompletableFuture<String> card) throws IOException {
+            pending.addLast(card);
+            while (pending.size() > window) {
+                out.write(pending.removeFirst().join());
+            }
+        }
+        
+        private String render(FeatureData feature, String fragmentHash) {
+            String card = generateFeatureCard(feature);
+            if (fragments != null && fragmentHash != null) {
+                fragments.saveFragment(fragmentHash, card);
+            }
+            return card;
+        }
+        
+        @Override
+        public void close() {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface FeatureSink {
+        void accept(FeatureData feature) throws IOException;
     }
     
-    private static class FeatureData {
+    // Data classes, shared with LiveReportPlugin
+    static class FeatureData {
         String name;
+        String uri;
         String status;
         List<ScenarioData> scenarios = new ArrayList<>();
         int passed = 0;
         int failed = 0;
         int skipped = 0;
+        int flaky = 0; // passed, but only on a rerun; also counted as passed
+        
+        void add(ScenarioData scenario) {
+            scenarios.add(scenario);
+            count(scenario);
+        }
+        
+        /**
+         * Counts the scenario without keeping it.
+         */
+        void count(ScenarioData scenario) {
+            if (scenario.isFlaky()) {
+                flaky++;
+            }
+            if ("passed".equals(scenario.status)) {
+                passed++;
+            } else if ("failed".equals(scenario.status)) {
+                failed++;
+            } else {
+                skipped++;
+            }
+        }
+        
+        void updateStatus() {
+            if (failed > 0) {
+                status = "failed";
+            } else if (passed > 0) {
+                status = "passed";
+            } else {
+                status = "skipped";
+            }
+        }
     }
     
-    private static class ScenarioData {
+    static class ScenarioData {
         String name;
         String status;
         List<String> tags = new ArrayList<>();
         List<StepData> steps = new ArrayList<>();
-        List<String> screenshots = new ArrayList<>();
+        List<String> screenshots = new ArrayList<>(); // paths relative to the report directory
+        List<SpanData> spans = new ArrayList<>();
+        List<Samples.Distribution> distributions = new ArrayList<>();
+        List<AttemptData> attempts = new ArrayList<>(); // empty unless the scenario was rerun
         String errorMessage;
         double duration = 0;
+        
+        boolean isFlaky() {
+            return attempts.size() > 1 && "passed".equals(status);
+        }
+        
+        /**
+         * Derives duration, status and error message from the steps:
+         * failed if any step failed, passed if every step passed, skipped otherwise.
+         */
+        void complete() {
+            boolean anyFailed = false;
+            boolean allPassed = true;
+            for (StepData step : steps) {
+                if (step.duration > 0) {
+                    duration += step.duration;
+                }
+                if ("failed".equals(step.status)) {
+                    anyFailed = true;
+                    if (errorMessage == null) {
+                        errorMessage = step.errorMessage;
+                    }
+                } else if (!"passed".equals(step.status)) {
+                    allPassed = false;
+                }
+            }
+            status = anyFailed ? "failed" : (allPassed ? "passed" : "skipped");
+        }
+    }
+    
+    static class AttemptData {
+        String status;
+        double duration; // seconds
+        String errorMessage;
+    }
+    
+    static class SpanData {
+        String name;
+        int depth;
+        long durationNanos;
     }
     
-    private static class StepData {
+    static class StepData {
         String keyword;
         String text;
+        // Step definition that ran the step (match.location), null for undefined steps
+        String location;
         String status;
         double duration = 0;
         String errorMessage;
@@ -1,8 +1,17 @@
 package com.scm.utils;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
 /**
  * Utility class to run the custom report generator.
  * This can be executed after tests complete.
+ * <p>
+ * The first argument is the input: one cucumber.json, or a comma-separated list of reports and globs
+ * (e.g. <code>target/shards/&#42;/cucumber.json</code>) that {@link ReportMerger} merges into
+ * {@code cucumber-merged.json} next to the output first. The second argument is the output HTML.
  */
 public class ReportGeneratorRunner {
     
@@ -22,7 +31,31 @@ public class ReportGeneratorRunner {
         System.out.println("   Input JSON: " + jsonReportPath);
         System.out.println("   Output HTML: " + outputPath);
         
-        ReportGenerator.generateFancyHTMLReport(jsonReportPath, outputPath);
+        try {
+            List<Path> reports = ReportMerger.resolve(jsonReportPath);
+            if (reports.isEmpty()) {
+                System.err.println("No JSON report matches: " + jsonReportPath);
+                return;
+            }
+            if (reports.size() > 1) {
+                Path merged = Paths.get(outputPath).toAbsolutePath().resolveSibling("cucumber-merged.json");
+                ReportMerger.merge(reports, merged);
+                jsonReportPath = merged.toString();
+            } else {
+                jsonReportPath = reports.get(0).toString();
+            }
+        } catch (IOException e) {
+            System.err.println("Error merging reports: " + e.getMessage());
+            return;
+        }
+        
+        ReportModel model = ReportGenerator.generateFancyHTMLReport(jsonReportPath, outputPath);
+        if (model != null) {
+            ReportModel.Stats stats = model.stats();
+            System.out.println("   Scenarios: " + stats.total() + " (" + stats.passed() + " passed, "
+                    + stats.failed() + " failed, " + stats.skipped() + " skipped) in "
+                    + String.format("%.2f", stats.durationSeconds()) + " s");
+        }
         
         System.out.println("✅ Report generation complete!");
     }
@@ -0,0 +1,293 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Merges several Cucumber JSON reports (e.g. one per shard or node) into one, for {@link ReportGeneratorRunner}.
+ * Features with the same URI become one feature; a scenario (same id and line) found in several reports is
+ * kept once, from the last report that has it, together with the background written right before it.
+ * <p>
+ * Both passes stream: the first records where every feature starts and which scenarios it holds, the second
+ * copies the kept elements token by token, reading each feature again from its byte offset. Only that index is
+ * kept in memory, never a feature or its embeddings, so memory does not depend on how big the reports are.
+ */
+public class ReportMerger {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /** Where one feature object starts in one report, and which of its elements are kept. */
+    private record Occurrence(Path report, long offset, BitSet kept) {
+    }
+
+    /** Where a scenario was last seen: occurrence and element index, plus whether a background precedes it. */
+    private record Position(Occurrence occurrence, int element, boolean afterBackground) {
+    }
+
+    /**
+     * @param inputs comma-separated report paths and globs, e.g. <code>target/shards/&#42;/cucumber.json</code>;
+     *               commas inside a glob's braces ({@code {a,b}}) do not separate inputs
+     * @return the matching reports, in the order given; glob matches sorted by path
+     */
+    public static List<Path> resolve(String inputs) throws IOException {
+        List<Path> reports = new ArrayList<>();
+        for (String input : split(inputs)) {
+            String pattern = input.trim();
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int wildcard = indexOfWildcard(pattern);
+            if (wildcard < 0) {
+                reports.add(Paths.get(pattern));
+                continue;
+            }
+            // Walk from the last directory before the first wildcard
+            int slash = Math.max(pattern.lastIndexOf('/', wildcard), pattern.lastIndexOf('\\', wildcard));
+            Path base = Paths.get(slash < 0 ? "." : pattern.substring(0, slash + 1));
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            if (!Files.isDirectory(base)) {
+                continue;
+            }
+            TreeSet<Path> matches = new TreeSet<>();
+            try (Stream<Path> files = Files.walk(base)) {
+                files.filter(Files::isRegularFile)
+                        .map(path -> slash < 0 ? base.relativize(path) : path)
+                        .filter(matcher::matches)
+                        .forEach(matches::add);
+            }
+            reports.addAll(matches);
+        }
+        return reports;
+    }
+
+    private static List<String> split(String inputs) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < inputs.length(); i++) {
+            char c = inputs.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(inputs.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(inputs.substring(start));
+        return parts;
+    }
+
+    private static int indexOfWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if ("*?[{".indexOf(pattern.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the merged report to {@code target}; missing or unreadable reports are skipped with a warning.
+     * @return the number of scenarios in the merged report
+     */
+    public static int merge(List<Path> reports, Path target) throws IOException {
+        // Feature URI -> its occurrences in all reports, in first-seen order
+        Map<String, List<Occurrence>> features = new LinkedHashMap<>();
+        // URI, id and line -> the last place the scenario was seen
+        Map<String, Position> scenarios = new HashMap<>();
+        int read = 0;
+        for (Path report : reports) {
+            if (!Files.isRegularFile(report)) {
+                System.err.println("[ReportMerger] ⚠ Skipping missing report " + report);
+                continue;
+            }
+            // Indexed on its own first, so a report that breaks off halfway contributes nothing
+            Map<String, List<Occurrence>> reportFeatures = new LinkedHashMap<>();
+            Map<String, Position> reportScenarios = new HashMap<>();
+            try {
+                index(report, reportFeatures, reportScenarios);
+                reportFeatures.forEach((uri, occurrences) ->
+                        features.computeIfAbsent(uri, u -> new ArrayList<>()).addAll(occurrences));
+                scenarios.putAll(reportScenarios);
+                read++;
+            } catch (IOException e) {
+                System.err.println("[ReportMerger] ⚠ Skipping unreadable report " + report + ": " + e.getMessage());
+            }
+        }
+        for (Position position : scenarios.values()) {
+            position.occurrence().kept().set(position.element());
+            if (position.afterBackground()) {
+                position.occurrence().kept().set(position.element() - 1);
+            }
+        }
+
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (JsonGenerator generator = JSON.createGenerator(tmp.toFile(), JsonEncoding.UTF8)) {
+                generator.useDefaultPrettyPrinter();
+                generator.writeStartArray();
+                for (List<Occurrence> occurrences : features.values()) {
+                    writeFeature(occurrences, generator);
+                }
+                generator.writeEndArray();
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        System.out.println("[ReportMerger] ✓ Merged " + read + " reports into " + target + ": "
+                + features.size() + " features, " + scenarios.size() + " scenarios");
+        return scenarios.size();
+    }
+
+    /**
+     * First pass over one report: feature offsets and URIs, and the id and line of every scenario.
+     */
+    private static void index(Path report, Map<String, List<Occurrence>> features,
+                              Map<String, Position> scenarios) throws IOException {
+        try (JsonParser parser = JSON.createParser(report.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Occurrence occurrence = new Occurrence(report, parser.currentTokenLocation().getByteOffset(), new BitSet());
+                // "elements" comes before "uri", so scenario keys are resolved at the end of the feature
+                String uri = null;
+                List<String> ids = new ArrayList<>(); // per scenario: "id:line"
+                List<int[]> elements = new ArrayList<>(); // per scenario: {element index, after a background}
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if ("uri".equals(field) && value == JsonToken.VALUE_STRING) {
+                        uri = parser.getText();
+                    } else if ("elements".equals(field) && value == JsonToken.START_ARRAY) {
+                        boolean afterBackground = false;
+                        for (int element = 0; parser.nextToken() == JsonToken.START_OBJECT; element++) {
+                            String[] scan = scanElement(parser); // {type, id, line}
+                            if ("scenario".equals(scan[0])) {
+                                ids.add(scan[1] + ":" + scan[2]);
+                                elements.add(new int[] {element, afterBackground ? 1 : 0});
+                            }
+                            afterBackground = "background".equals(scan[0]);
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (uri == null) {
+                    continue;
+                }
+                features.computeIfAbsent(uri, u -> new ArrayList<>()).add(occurrence);
+                for (int i = 0; i < ids.size(); i++) {
+                    int[] element = elements.get(i);
+                    scenarios.put(uri + "\n" + ids.get(i), new Position(occurrence, element[0], element[1] == 1));
+                }
+            }
+        }
+    }
+
+    private static String[] scanElement(JsonParser parser) throws IOException {
+        String[] scan = {"", "", ""};
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                scan[0] = parser.getText();
+            } else if ("id".equals(field) && value == JsonToken.VALUE_STRING) {
+                scan[1] = parser.getText();
+            } else if ("line".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                scan[2] = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return scan;
+    }
+
+    /**
+     * Second pass for one URI: the fields of its first occurrence, with the kept elements of all occurrences.
+     */
+    private static void writeFeature(List<Occurrence> occurrences, JsonGenerator generator) throws IOException {
+        Occurrence first = occurrences.get(0);
+        try (FileChannel channel = FileChannel.open(first.report());
+             JsonParser parser = JSON.createParser(Channels.newInputStream(channel.position(first.offset())))) {
+            parser.nextToken();
+            generator.writeStartObject();
+            boolean elementsWritten = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (!"elements".equals(field)) {
+                    generator.writeFieldName(field);
+                    generator.copyCurrentStructure(parser);
+                    continue;
+                }
+                parser.skipChildren();
+                writeElements(occurrences, generator);
+                elementsWritten = true;
+            }
+            if (!elementsWritten) {
+                writeElements(occurrences, generator);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeElements(List<Occurrence> occurrences, JsonGenerator generator) throws IOException {
+        generator.writeFieldName("elements");
+        generator.writeStartArray();
+        for (Occurrence occurrence : occurrences) {
+            copyElements(occurrence, generator);
+        }
+        generator.writeEndArray();
+    }
+
+    private static void copyElements(Occurrence occurrence, JsonGenerator generator) throws IOException {
+        if (occurrence.kept().isEmpty()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(occurrence.report());
+             JsonParser parser = JSON.createParser(Channels.newInputStream(channel.position(occurrence.offset())))) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!"elements".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                for (int element = 0; parser.nextToken() == JsonToken.START_OBJECT; element++) {
+                    if (occurrence.kept().get(element)) {
+                        generator.copyCurrentStructure(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * {@link ReportMerger} over the fixtures in {@code reports/merge}, copied to {@code shards/1/cucumber.json} and
+ * {@code shards/2/cucumber.json}: both shards ran the checkout feature, shard 1 with the card (line 6) and
+ * invoice (line 9) scenarios, shard 2 with the invoice scenario again, now passing, and the gift card one (line 12).
+ * Only shard 1 ran the search feature.
+ */
+class ReportMergerTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private Path shard1;
+    private Path shard2;
+    private Path merged;
+
+    @BeforeEach
+    void copyFixtures() throws IOException {
+        shard1 = copyFixture("shard-1.json", dir.resolve("shards/1/cucumber.json"));
+        shard2 = copyFixture("shard-2.json", dir.resolve("shards/2/cucumber.json"));
+        merged = dir.resolve("merged/cucumber.json");
+    }
+
+    private static Path copyFixture(String name, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try (InputStream in = ReportMergerTest.class.getResourceAsStream("/reports/merge/" + name)) {
+            Files.copy(in, target);
+        }
+        return target;
+    }
+
+    @Test
+    void joinsAFeatureSplitAcrossReports() throws IOException {
+        assertEquals(4, ReportMerger.merge(List.of(shard1, shard2), merged));
+
+        JsonNode report = MAPPER.readTree(merged.toFile());
+        assertEquals(List.of("classpath:features/checkout.feature", "classpath:features/search.feature"),
+                values(report, "uri"));
+        JsonNode checkout = report.get(0);
+        assertEquals("Checkout", checkout.path("name").asText());
+        assertEquals(List.of(6, 9, 12), scenarioLines(checkout));
+        assertEquals(List.of(3), scenarioLines(report.get(1)));
+    }
+
+    @Test
+    void keepsAScenarioInOverlappingShardsOnceFromTheLastReport() throws IOException {
+        ReportMerger.merge(List.of(shard1, shard2), merged);
+
+        JsonNode elements = MAPPER.readTree(merged.toFile()).get(0).path("elements");
+        assertEquals(List.of("background", "scenario", "background", "scenario", "background", "scenario"),
+                values(elements, "type"));
+        JsonNode invoice = elements.get(3);
+        assertEquals(9, invoice.path("line").asInt());
+        assertEquals("passed", invoice.path("steps").get(0).path("result").path("status").asText());
+        // With the background it ran after in that report
+        assertEquals(5_000_000L, elements.get(2).path("steps").get(0).path("result").path("duration").asLong());
+        assertEquals(1_000_000L, elements.get(0).path("steps").get(0).path("result").path("duration").asLong());
+    }
+
+    @Test
+    void theLastReportGivenWinsWhateverItsPath() throws IOException {
+        ReportMerger.merge(List.of(shard2, shard1), merged);
+
+        JsonNode checkout = MAPPER.readTree(merged.toFile()).get(0);
+        // Elements follow the order of the reports
+        assertEquals(List.of(12, 6, 9), scenarioLines(checkout));
+        JsonNode invoice = checkout.path("elements").get(5);
+        assertEquals("failed", invoice.path("steps").get(0).path("result").path("status").asText());
+    }
+
+    @Test
+    void resolvesAnAbsoluteGlob() throws IOException {
+        String pattern = dir.toAbsolutePath() + "/shards/*/cucumber.json";
+
+        assertEquals(List.of(shard1.toAbsolutePath(), shard2.toAbsolutePath()), ReportMerger.resolve(pattern));
+    }
+
+    @Test
+    void resolvesARelativeGlob() throws IOException {
+        Path relative = Paths.get("").toAbsolutePath().relativize(dir.toAbsolutePath());
+        String pattern = relative + "/shards/{2,1}/cucumber.json";
+
+        // Glob matches are sorted by path, not by the order of the braces
+        assertEquals(List.of(relative.resolve("shards/1/cucumber.json"), relative.resolve("shards/2/cucumber.json")),
+                ReportMerger.resolve(pattern));
+    }
+
+    @Test
+    void keepsTheOrderOfCommaSeparatedInputs() throws IOException {
+        String missing = dir.resolve("missing.json").toString();
+
+        assertEquals(List.of(shard2, Paths.get(missing), shard1),
+                ReportMerger.resolve(shard2 + ", " + missing + ",," + shard1));
+        assertEquals(List.of(), ReportMerger.resolve(dir.resolve("nowhere") + "/*/cucumber.json"));
+    }
+
+    @Test
+    void skipsAMissingReport() throws IOException {
+        assertEquals(4, ReportMerger.merge(List.of(shard1, dir.resolve("shards/3/cucumber.json"), shard2), merged));
+
+        assertEquals(List.of(6, 9, 12), scenarioLines(MAPPER.readTree(merged.toFile()).get(0)));
+    }
+
+    @Test
+    void skipsAnUnreadableReport() throws IOException {
+        Path broken = dir.resolve("shards/3/cucumber.json");
+        Files.createDirectories(broken.getParent());
+        Files.writeString(broken, "[{\"elements\": [{\"type\": \"scenario\", \"line\": ");
+
+        assertEquals(4, ReportMerger.merge(List.of(shard1, broken, shard2), merged));
+
+        JsonNode report = MAPPER.readTree(merged.toFile());
+        assertEquals(2, report.size());
+        assertEquals(List.of(6, 9, 12), scenarioLines(report.get(0)));
+        assertFalse(Files.exists(dir.resolve("merged/cucumber.json.tmp")));
+    }
+
+    @Test
+    void skipsATruncatedReportEntirely() throws IOException {
+        // Shard 1 cut off in its second feature: its complete first feature must not win over shard 2
+        String content = Files.readString(shard1);
+        Path truncated = dir.resolve("shards/3/cucumber.json");
+        Files.createDirectories(truncated.getParent());
+        Files.writeString(truncated, content.substring(0, content.indexOf("Find a product")));
+
+        assertEquals(4, ReportMerger.merge(List.of(shard1, shard2, truncated), merged));
+
+        JsonNode invoice = MAPPER.readTree(merged.toFile()).get(0).path("elements").get(3);
+        assertEquals(9, invoice.path("line").asInt());
+        assertEquals("passed", invoice.path("steps").get(0).path("result").path("status").asText());
+    }
+
+    private static List<Integer> scenarioLines(JsonNode feature) {
+        List<Integer> lines = new ArrayList<>();
+        for (JsonNode element : feature.path("elements")) {
+            if ("scenario".equals(element.path("type").asText())) {
+                lines.add(element.path("line").asInt());
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> values(JsonNode array, String field) {
+        List<String> values = new ArrayList<>();
+        for (JsonNode node : array) {
+            values.add(node.path(field).asText());
+        }
+        return values;
+    }
+}
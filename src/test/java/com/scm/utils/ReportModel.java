@@ -0,0 +1,84 @@
+package com.scm.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable aggregate of a cucumber.json run: overall stats, per-feature counts and per-tag counts,
+ * all with duration totals. Built by {@link ReportGenerator} in the same streaming pass that renders
+ * the HTML report, so other outputs (summary JSON, console digests) need no second read of the file.
+ * Serializes to JSON as-is with Jackson.
+ */
+public record ReportModel(Stats stats, List<FeatureSummary> features, Map<String, TagSummary> tags) {
+
+    public record Stats(int total, int passed, int failed, int skipped, double durationSeconds) {
+        public double passRate() {
+            return total > 0 ? (passed * 100.0 / total) : 0;
+        }
+    }
+
+    public record FeatureSummary(String name, String uri, String status,
+                                 int total, int passed, int failed, int skipped, double durationSeconds) {
+    }
+
+    public record TagSummary(String tag, int total, int passed, int failed, int skipped, double durationSeconds) {
+    }
+
+    /**
+     * Accumulates scenarios feature by feature. Call {@link #scenario} for each scenario of a feature,
+     * then {@link #endFeature} once the feature is complete.
+     */
+    static class Builder {
+        private final Counts run = new Counts();
+        private Counts feature = new Counts();
+        private final List<FeatureSummary> features = new ArrayList<>();
+        private final Map<String, Counts> tags = new LinkedHashMap<>();
+
+        void scenario(String status, List<String> scenarioTags, double durationSeconds) {
+            run.add(status, durationSeconds);
+            feature.add(status, durationSeconds);
+            for (String tag : scenarioTags) {
+                tags.computeIfAbsent(tag, t -> new Counts()).add(status, durationSeconds);
+            }
+        }
+
+        void endFeature(String name, String uri, String status) {
+            features.add(new FeatureSummary(name, uri, status,
+                    feature.total, feature.passed, feature.failed, feature.skipped, feature.duration));
+            feature = new Counts();
+        }
+
+        ReportModel build() {
+            Map<String, TagSummary> tagSummaries = new LinkedHashMap<>();
+            tags.forEach((tag, c) -> tagSummaries.put(tag,
+                    new TagSummary(tag, c.total, c.passed, c.failed, c.skipped, c.duration)));
+            return new ReportModel(
+                    new Stats(run.total, run.passed, run.failed, run.skipped, run.duration),
+                    List.copyOf(features),
+                    Collections.unmodifiableMap(tagSummaries));
+        }
+    }
+
+    private static class Counts {
+        int total = 0;
+        int passed = 0;
+        int failed = 0;
+        int skipped = 0;
+        double duration = 0;
+
+        void add(String status, double durationSeconds) {
+            total++;
+            if ("passed".equals(status)) {
+                passed++;
+            } else if ("failed".equals(status)) {
+                failed++;
+            } else {
+                skipped++;
+            }
+            duration += durationSeconds;
+        }
+    }
+}
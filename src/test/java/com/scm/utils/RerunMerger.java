@@ -0,0 +1,342 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges the Cucumber JSON reports of rerun passes ({@link FailedScenarioRerun}) back into the main
+ * cucumber.json. Every rerun scenario is replaced by its last attempt, which gets an {@code "attempts"} array
+ * with the status, duration (nanoseconds) and error of each attempt, the original run first:
+ * <pre>
+ * "attempts": [{"attempt": 1, "status": "failed", "duration": 5123000000, "error_message": "..."},
+ *              {"attempt": 2, "status": "passed", "duration": 4871000000}]
+ * </pre>
+ * The main report is streamed twice (once to locate the rerun scenarios, once to copy it) and never held in
+ * memory; only the rerun reports, which contain just the failed scenarios, are read as trees.
+ */
+public class RerunMerger {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public record Attempt(String status, long durationNanos, String errorMessage) {
+    }
+
+    /**
+     * @return final status per rerun scenario key ({@link TimingHistory#key(String, int)}), with every attempt;
+     *         empty, with the report left untouched, if none of the rerun scenarios is in the report
+     */
+    public static Map<String, List<Attempt>> merge(Path report, List<Path> reruns) throws IOException {
+        // Scenario key -> its elements (background, if any, then the scenario) in each rerun, in order
+        Map<String, List<List<JsonNode>>> rerunElements = new LinkedHashMap<>();
+        for (Path rerun : reruns) {
+            if (Files.isRegularFile(rerun)) {
+                collect(MAPPER.readTree(rerun.toFile()), rerunElements);
+            }
+        }
+        if (rerunElements.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Attempt> originals = new HashMap<>();
+        Map<Long, String> backgrounds = new HashMap<>(); // background position -> key of the scenario after it
+        Map<Long, String> keys = new HashMap<>(); // rerun scenario position -> its key
+        locate(report, rerunElements.keySet(), originals, backgrounds, keys);
+
+        Map<String, List<Attempt>> history = new LinkedHashMap<>();
+        for (Map.Entry<String, List<List<JsonNode>>> scenario : rerunElements.entrySet()) {
+            Attempt original = originals.get(scenario.getKey());
+            if (original == null) {
+                continue;
+            }
+            List<Attempt> attempts = new ArrayList<>();
+            attempts.add(original);
+            for (List<JsonNode> elements : scenario.getValue()) {
+                attempts.add(summarize(elements.get(elements.size() - 1)));
+            }
+            history.put(scenario.getKey(), attempts);
+        }
+        // Nothing to merge, e.g. the main run crashed and left an empty or truncated report: leave it as it is
+        if (history.isEmpty()) {
+            return history;
+        }
+
+        // A sibling rather than Files.createTempFile, which would leave the report readable by its owner only
+        Path merged = report.resolveSibling(report.getFileName() + ".tmp");
+        try {
+            copy(report, merged, (feature, element) -> {
+                long position = position(feature, element);
+                String key = backgrounds.get(position);
+                if (key != null) {
+                    // Replaced along with its scenario if the rerun has a background of its own
+                    List<List<JsonNode>> runs = rerunElements.get(key);
+                    return history.containsKey(key) && runs.get(runs.size() - 1).size() > 1 ? List.of() : null;
+                }
+                key = keys.get(position);
+                if (key == null || !history.containsKey(key)) {
+                    return null;
+                }
+                List<List<JsonNode>> runs = rerunElements.get(key);
+                List<JsonNode> last = new ArrayList<>(runs.get(runs.size() - 1));
+                ObjectNode scenario = ((ObjectNode) last.get(last.size() - 1)).deepCopy();
+                ArrayNode attempts = scenario.putArray("attempts");
+                List<Attempt> summary = history.get(key);
+                for (int i = 0; i < summary.size(); i++) {
+                    Attempt attempt = summary.get(i);
+                    ObjectNode node = attempts.addObject()
+                            .put("attempt", i + 1)
+                            .put("status", attempt.status())
+                            .put("duration", attempt.durationNanos());
+                    if (attempt.errorMessage() != null) {
+                        node.put("error_message", attempt.errorMessage());
+                    }
+                }
+                last.set(last.size() - 1, scenario);
+                return last;
+            });
+            Files.move(merged, report, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(merged);
+        }
+        return history;
+    }
+
+    /**
+     * Collects the scenarios of one rerun report; each report adds one attempt to the scenarios it contains.
+     */
+    private static void collect(JsonNode report, Map<String, List<List<JsonNode>>> rerunElements) {
+        for (JsonNode feature : report) {
+            String uri = feature.path("uri").asText();
+            JsonNode background = null;
+            for (JsonNode element : feature.path("elements")) {
+                String type = element.path("type").asText();
+                if ("background".equals(type)) {
+                    background = element;
+                } else if ("scenario".equals(type)) {
+                    List<JsonNode> elements = new ArrayList<>();
+                    if (background != null) {
+                        elements.add(background);
+                    }
+                    elements.add(element);
+                    rerunElements.computeIfAbsent(TimingHistory.key(uri, element.path("line").asInt()),
+                            key -> new ArrayList<>()).add(elements);
+                    background = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * First pass over the main report: finds the element positions of the rerun scenarios (and of the
+     * backgrounds right before them, which the rerun's own backgrounds replace) and summarizes their
+     * original attempt, skipping embeddings.
+     */
+    private static void locate(Path report, Set<String> rerun, Map<String, Attempt> originals,
+                               Map<Long, String> backgrounds, Map<Long, String> keys) throws IOException {
+        try (JsonParser parser = MAPPER.createParser(report.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            int feature = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                // "elements" comes before "uri", so keys are resolved at the end of the feature
+                String uri = null;
+                List<int[]> scenarios = new ArrayList<>(); // {element index, line, preceded by a background}
+                List<Attempt> attempts = new ArrayList<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if ("uri".equals(field) && value == JsonToken.VALUE_STRING) {
+                        uri = parser.getText();
+                    } else if ("elements".equals(field) && value == JsonToken.START_ARRAY) {
+                        boolean afterBackground = false;
+                        for (int element = 0; parser.nextToken() == JsonToken.START_OBJECT; element++) {
+                            ElementScan scan = scan(parser);
+                            if ("scenario".equals(scan.type)) {
+                                scenarios.add(new int[] {element, scan.line, afterBackground ? 1 : 0});
+                                attempts.add(scan.attempt());
+                            }
+                            afterBackground = "background".equals(scan.type);
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                for (int i = 0; uri != null && i < scenarios.size(); i++) {
+                    int[] scenario = scenarios.get(i);
+                    String key = TimingHistory.key(uri, scenario[1]);
+                    if (rerun.contains(key)) {
+                        long position = position(feature, scenario[0]);
+                        keys.put(position, key);
+                        originals.put(key, attempts.get(i));
+                        if (scenario[2] == 1) {
+                            backgrounds.put(position(feature, scenario[0] - 1), key);
+                        }
+                    }
+                }
+                feature++;
+            }
+        }
+    }
+
+    private static class ElementScan {
+        String type = "";
+        int line = -1;
+        String status = null;
+        long nanos = 0;
+        String errorMessage = null;
+
+        Attempt attempt() {
+            return new Attempt(status == null ? "skipped" : status, nanos, errorMessage);
+        }
+
+        /**
+         * Failed wins over any other status, which wins over passed.
+         */
+        void result(String resultStatus, long durationNanos, String error) {
+            nanos += Math.max(0, durationNanos);
+            if ("failed".equals(resultStatus)) {
+                if (!"failed".equals(status)) {
+                    errorMessage = error;
+                }
+                status = "failed";
+            } else if (!"passed".equals(resultStatus)) {
+                if (status == null || "passed".equals(status)) {
+                    status = resultStatus;
+                }
+            } else if (status == null) {
+                status = "passed";
+            }
+        }
+    }
+
+    private static ElementScan scan(JsonParser parser) throws IOException {
+        ElementScan scan = new ElementScan();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                scan.type = parser.getText();
+            } else if ("line".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                scan.line = parser.getIntValue();
+            } else if (("before".equals(field) || "steps".equals(field) || "after".equals(field))
+                    && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    scanResult(parser, scan);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return scan;
+    }
+
+    private static void scanResult(JsonParser parser, ElementScan scan) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("result".equals(field) && value == JsonToken.START_OBJECT) {
+                String status = "skipped";
+                long nanos = 0;
+                String error = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String resultField = parser.getCurrentName();
+                    JsonToken resultValue = parser.nextToken();
+                    if ("status".equals(resultField) && resultValue == JsonToken.VALUE_STRING) {
+                        status = parser.getText();
+                    } else if ("duration".equals(resultField) && resultValue.isNumeric()) {
+                        nanos = parser.getLongValue();
+                    } else if ("error_message".equals(resultField) && resultValue == JsonToken.VALUE_STRING) {
+                        error = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                scan.result(status, nanos, error);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static Attempt summarize(JsonNode element) {
+        ElementScan scan = new ElementScan();
+        for (String section : new String[] {"before", "steps", "after"}) {
+            for (JsonNode entry : element.path(section)) {
+                JsonNode result = entry.path("result");
+                scan.result(result.path("status").asText("skipped"), result.path("duration").asLong(),
+                        result.path("error_message").textValue());
+            }
+        }
+        return scan.attempt();
+    }
+
+    @FunctionalInterface
+    private interface Replacement {
+        /**
+         * @return the elements to write instead of this one (empty to drop it), or null to copy it as is
+         */
+        List<JsonNode> at(int feature, int element);
+    }
+
+    /**
+     * Second pass: copies the report token by token, substituting elements.
+     * @throws IOException if the report is not a JSON array, rather than leaving an empty copy
+     */
+    private static void copy(Path source, Path target, Replacement replacement) throws IOException {
+        try (JsonParser parser = MAPPER.createParser(source.toFile());
+             JsonGenerator generator = MAPPER.createGenerator(target.toFile(), JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException(source + " is not a Cucumber JSON report (no top-level array)");
+            }
+            generator.writeStartArray();
+            for (int feature = 0; parser.nextToken() == JsonToken.START_OBJECT; feature++) {
+                generator.writeStartObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    generator.writeFieldName(field);
+                    if (!"elements".equals(field) || value != JsonToken.START_ARRAY) {
+                        generator.copyCurrentStructure(parser);
+                        continue;
+                    }
+                    generator.writeStartArray();
+                    for (int element = 0; parser.nextToken() == JsonToken.START_OBJECT; element++) {
+                        List<JsonNode> substitute = replacement.at(feature, element);
+                        if (substitute == null) {
+                            generator.copyCurrentStructure(parser);
+                        } else {
+                            parser.skipChildren();
+                            for (JsonNode node : substitute) {
+                                MAPPER.writeTree(generator, node);
+                            }
+                        }
+                    }
+                    generator.writeEndArray();
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static long position(int feature, int element) {
+        return ((long) feature << 32) | element;
+    }
+}
@@ -0,0 +1,173 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link RerunMerger} over the fixtures in {@code reports/rerun}: a checkout feature with a background, two
+ * scenarios and two Scenario Outline rows, of which the card payment (line 6) passes on the first rerun and the
+ * USD row (line 18) on the second; and a search feature without background whose scenario passes on the first rerun.
+ */
+class RerunMergerTest {
+    static final String CHECKOUT = "classpath:features/checkout.feature";
+    static final String SEARCH = "classpath:features/search.feature";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private Path report;
+
+    @BeforeEach
+    void copyFixtures() throws IOException {
+        report = copyFixture(dir, "cucumber.json");
+        copyFixture(dir, "rerun-2.json");
+        copyFixture(dir, "rerun-3.json");
+    }
+
+    static Path copyFixture(Path dir, String name) throws IOException {
+        try (InputStream in = RerunMergerTest.class.getResourceAsStream("/reports/rerun/" + name)) {
+            Path target = dir.resolve(name);
+            Files.copy(in, target);
+            return target;
+        }
+    }
+
+    @Test
+    void recordsEveryAttemptOfEachRerunScenario() throws IOException {
+        Map<String, List<RerunMerger.Attempt>> history = merge();
+
+        assertEquals(List.of(CHECKOUT + ":6", CHECKOUT + ":18", SEARCH + ":3"), List.copyOf(history.keySet()));
+        assertEquals(List.of("failed", "passed"), statuses(history.get(CHECKOUT + ":6")));
+        assertEquals(List.of("failed", "failed", "passed"), statuses(history.get(CHECKOUT + ":18")));
+        assertEquals(List.of("failed", "passed"), statuses(history.get(SEARCH + ":3")));
+        assertEquals("card form timed out", history.get(CHECKOUT + ":6").get(0).errorMessage());
+        // The scenario's own hooks and steps, as for the original attempt; the background is not included
+        assertEquals(1_500_000_000L, history.get(CHECKOUT + ":6").get(1).durationNanos());
+    }
+
+    @Test
+    void keepsOneBackgroundBeforeEachRerunScenario() throws IOException {
+        merge();
+
+        JsonNode elements = feature(CHECKOUT).path("elements");
+        String[] types = new String[elements.size()];
+        for (int i = 0; i < elements.size(); i++) {
+            types[i] = elements.get(i).path("type").asText();
+        }
+        assertArrayEquals(new String[] {"background", "scenario", "background", "scenario",
+                "background", "scenario", "background", "scenario"}, types);
+        // Rerun scenarios come with the background of the same attempt, the others keep the original one
+        assertEquals(7_000_000L, backgroundDuration(elements.get(0)));
+        assertEquals(1_000_000L, backgroundDuration(elements.get(2)));
+        assertEquals(1_000_000L, backgroundDuration(elements.get(4)));
+        assertEquals(8_000_000L, backgroundDuration(elements.get(6)));
+    }
+
+    @Test
+    void replacesAnOutlineRowWithItsLastAttempt() throws IOException {
+        merge();
+
+        JsonNode elements = feature(CHECKOUT).path("elements");
+        JsonNode eur = elements.get(5);
+        JsonNode usd = elements.get(7);
+        assertEquals("checkout;pay-in-currency;;2", eur.path("id").asText());
+        assertTrue(eur.path("attempts").isMissingNode(), "an outline row that passed is left alone");
+        assertEquals("checkout;pay-in-currency;;3", usd.path("id").asText());
+        assertEquals("passed", usd.path("steps").get(0).path("result").path("status").asText());
+
+        JsonNode attempts = usd.path("attempts");
+        assertEquals(3, attempts.size());
+        assertEquals(1, attempts.get(0).path("attempt").asInt());
+        assertEquals("rate service down", attempts.get(0).path("error_message").asText());
+        assertEquals("rate service still down", attempts.get(1).path("error_message").asText());
+        assertEquals("passed", attempts.get(2).path("status").asText());
+        assertFalse(attempts.get(2).has("error_message"));
+    }
+
+    @Test
+    void replacesAScenarioWithoutBackground() throws IOException {
+        merge();
+
+        JsonNode elements = feature(SEARCH).path("elements");
+        assertEquals(1, elements.size());
+        assertEquals("passed", elements.get(0).path("steps").get(0).path("result").path("status").asText());
+        assertEquals(2, elements.get(0).path("attempts").size());
+    }
+
+    @Test
+    void leavesTheReportAloneWithoutRerunReports() throws IOException {
+        byte[] before = Files.readAllBytes(report);
+
+        assertTrue(RerunMerger.merge(report, List.of(dir.resolve("rerun-9.json"))).isEmpty());
+        assertArrayEquals(before, Files.readAllBytes(report));
+    }
+
+    @Test
+    void leavesAnEmptyReportAlone() throws IOException {
+        Files.writeString(report, "");
+
+        assertTrue(merge().isEmpty());
+        assertEquals("", Files.readString(report));
+        assertFalse(Files.exists(dir.resolve("cucumber.json.tmp")));
+    }
+
+    @Test
+    void leavesAReportThatIsNotAnArrayAlone() throws IOException {
+        Files.writeString(report, "{\"error\": \"run crashed\"}");
+
+        assertTrue(merge().isEmpty());
+        assertEquals("{\"error\": \"run crashed\"}", Files.readString(report));
+        assertFalse(Files.exists(dir.resolve("cucumber.json.tmp")));
+    }
+
+    @Test
+    void replacesTheReportWithoutLeavingATemporaryFile() throws IOException {
+        merge();
+
+        assertFalse(Files.exists(dir.resolve("cucumber.json.tmp")));
+        assertEquals(2, MAPPER.readTree(report.toFile()).size());
+    }
+
+    private Map<String, List<RerunMerger.Attempt>> merge() throws IOException {
+        return RerunMerger.merge(report, List.of(dir.resolve("rerun-2.json"), dir.resolve("rerun-3.json")));
+    }
+
+    private JsonNode feature(String uri) throws IOException {
+        for (JsonNode feature : MAPPER.readTree(report.toFile())) {
+            if (uri.equals(feature.path("uri").asText())) {
+                return feature;
+            }
+        }
+        throw new AssertionError("No feature " + uri + " in " + report);
+    }
+
+    private static long backgroundDuration(JsonNode background) {
+        assertEquals("background", background.path("type").asText());
+        return background.path("steps").get(0).path("result").path("duration").asLong();
+    }
+
+    private static List<String> statuses(List<RerunMerger.Attempt> attempts) {
+        List<String> statuses = new ArrayList<>();
+        for (RerunMerger.Attempt attempt : attempts) {
+            statuses.add(attempt.status());
+        }
+        return statuses;
+    }
+}
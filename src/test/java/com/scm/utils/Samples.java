@@ -0,0 +1,150 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Repeated measurements, so performance steps assert on a distribution instead of one noisy sample.
+ * <pre>
+ * Samples.repeat(2, 10, () -> { loadHomepage(); search(term); });
+ * long p95 = Samples.get("search").orElseThrow().percentile(95);
+ * </pre>
+ * Each iteration runs inside a {@link Spans} span; every span finished during a measured iteration
+ * becomes one sample of the distribution with the span's name. Warm-up iterations run the same way
+ * but are not sampled. Distributions are kept per thread (one scenario); {@code Hooks} attaches them
+ * as {@code application/json} named {@value #ATTACHMENT_NAME}, which {@link ReportGenerator} renders
+ * as percentiles and a histogram.
+ */
+public class Samples {
+    public static final String ATTACHMENT_NAME = "samples";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final ThreadLocal<Map<String, Distribution>> distributions = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    /**
+     * @param warmups      iterations that ran but were not sampled
+     * @param samplesNanos measured durations, in the order they were taken
+     */
+    public record Distribution(String name, int warmups, List<Long> samplesNanos) {
+
+        /**
+         * Nearest-rank percentile: the smallest sample that at least {@code percentile}% of samples do not exceed.
+         * @param percentile 0-100; 100 is the maximum
+         * @throws IllegalStateException if there are no samples
+         */
+        public long percentile(double percentile) {
+            if (samplesNanos.isEmpty()) {
+                throw new IllegalStateException("No samples for '" + name + "'");
+            }
+            List<Long> sorted = samplesNanos.stream().sorted().toList();
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+            return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+        }
+
+        public long min() {
+            return percentile(0);
+        }
+
+        public long max() {
+            return percentile(100);
+        }
+
+        /**
+         * @return sample counts in {@code buckets} equal-width buckets from {@link #min()} to {@link #max()}
+         */
+        public int[] histogram(int buckets) {
+            int[] counts = new int[buckets];
+            if (samplesNanos.isEmpty()) {
+                return counts;
+            }
+            long min = min();
+            double width = Math.max(1, max() - min) / (double) buckets;
+            for (long sample : samplesNanos) {
+                counts[Math.min(buckets - 1, (int) ((sample - min) / width))]++;
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Runs {@code iteration} {@code warmups + runs} times, sampling every span finished in the last {@code runs}.
+     */
+    public static void repeat(int warmups, int runs, Runnable iteration) {
+        Set<String> sampled = new LinkedHashSet<>();
+        for (int i = 0; i < warmups + runs; i++) {
+            boolean warmup = i < warmups;
+            String name = warmup ? "warm-up " + (i + 1) : "run " + (i - warmups + 1);
+            Spans.time(name, iteration);
+            if (!warmup) {
+                Spans.last(name).ifPresent(run -> sample(run.children(), sampled));
+            }
+        }
+        // The warm-ups count towards every distribution this block produced
+        for (String name : sampled) {
+            distributions.get().computeIfPresent(name, (key, d) -> new Distribution(key, d.warmups() + warmups, d.samplesNanos()));
+        }
+    }
+
+    /**
+     * Adds one sample to the named distribution of the calling thread.
+     */
+    public static void record(String name, long nanos) {
+        distributions.get().compute(name, (key, d) -> {
+            List<Long> samples = d == null ? new ArrayList<>() : new ArrayList<>(d.samplesNanos());
+            samples.add(nanos);
+            return new Distribution(key, d == null ? 0 : d.warmups(), List.copyOf(samples));
+        });
+    }
+
+    public static Optional<Distribution> get(String name) {
+        return Optional.ofNullable(distributions.get().get(name));
+    }
+
+    /**
+     * @return "p95", "p99.9" or "max"
+     */
+    public static String label(double percentile) {
+        if (percentile >= 100) {
+            return "max";
+        }
+        return "p" + (percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile));
+    }
+
+    /**
+     * Starts a fresh record for the calling thread (one scenario).
+     */
+    public static void reset() {
+        distributions.get().clear();
+    }
+
+    /**
+     * @return the calling thread's distributions, in the order they were first sampled
+     */
+    public static List<Distribution> getDistributions() {
+        return List.copyOf(distributions.get().values());
+    }
+
+    public static String toJson(List<Distribution> recorded) {
+        try {
+            return MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(recorded);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sample(List<Spans.Timing> timings, Set<String> sampled) {
+        for (Spans.Timing timing : timings) {
+            record(timing.name(), timing.durationNanos());
+            sampled.add(timing.name());
+            sample(timing.children(), sampled);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed screenshot directory for the HTML report.
+ * Base64 embeddings are decoded straight from the JSON parser into a file named after the
+ * SHA-256 of the image, so every distinct screenshot is decoded once and stored once,
+ * no matter how many scenarios attached it.
+ */
+public class ScreenshotStore {
+    public static final String DIRECTORY_NAME = "screenshots";
+
+    private final Path reportDirectory;
+    private final Path directory;
+    private int stored = 0;
+    private int deduplicated = 0;
+
+    /**
+     * @param reportDirectory directory of the HTML report; screenshots go to its {@code screenshots/} child
+     */
+    public ScreenshotStore(Path reportDirectory) {
+        this.reportDirectory = reportDirectory;
+        this.directory = reportDirectory.resolve(DIRECTORY_NAME);
+    }
+
+    /**
+     * Decodes the base64 string the parser is positioned on into a staging file.
+     * The staged file must then be either {@link Staged#commit() committed} or {@link Staged#discard() discarded}.
+     */
+    public Staged stage(JsonParser parser) throws IOException {
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, "staged", ".tmp");
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+            parser.readBinaryValue(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return new Staged(tmp, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Same as {@link #stage(JsonParser)} for an image that is already in memory, e.g. from a Cucumber embed event.
+     */
+    public Staged stage(byte[] data) throws IOException {
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, "staged", ".tmp");
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+            out.write(data);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return new Staged(tmp, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    public Path getReportDirectory() {
+        return reportDirectory;
+    }
+
+    public int getStoredCount() {
+        return stored;
+    }
+
+    public int getDeduplicatedCount() {
+        return deduplicated;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * A decoded embedding waiting for its mime type to decide whether it is kept.
+     */
+    public class Staged {
+        private final Path tmp;
+        private final String hash;
+
+        private Staged(Path tmp, String hash) {
+            this.tmp = tmp;
+            this.hash = hash;
+        }
+
+        /**
+         * Moves the staged image to its content-hash name, or drops it if that image is already stored.
+         * @return path of the image relative to the report directory
+         */
+        public String commit() throws IOException {
+            String fileName = hash + ".png";
+            Path target = directory.resolve(fileName);
+            if (Files.exists(target)) {
+                Files.delete(tmp);
+                deduplicated++;
+            } else {
+                try {
+                    Files.move(tmp, target);
+                    stored++;
+                } catch (FileAlreadyExistsException e) {
+                    Files.delete(tmp);
+                    deduplicated++;
+                }
+            }
+            return DIRECTORY_NAME + "/" + fileName;
+        }
+
+        /**
+         * @return the decoded bytes, for small non-image attachments that are read rather than stored
+         */
+        public byte[] read() throws IOException {
+            return Files.readAllBytes(tmp);
+        }
+
+        public void discard() throws IOException {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
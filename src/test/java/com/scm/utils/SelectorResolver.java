@@ -0,0 +1,204 @@
+package com.scm.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Finds the first visible, enabled element among several candidate locators in a single
+ * {@code executeScript} round trip per poll, instead of waiting out a full timeout per candidate.
+ * <p>
+ * The winning candidate is remembered per lookup key and page (host + path) and tried first
+ * next time. Winners are kept in {@code selector-cache.properties} under {@code -Dselector.cache.dir}
+ * (default: the driver resolution cache directory, {@code ~/.cache/scm-selenium}).
+ * Set {@code -Dselector.cache=false} to bypass the cache.
+ */
+public class SelectorResolver {
+    private static final boolean CACHE_ENABLED = !"false".equalsIgnoreCase(System.getProperty("selector.cache", "true"));
+    private static final Path CACHE_FILE = Paths.get(
+            System.getProperty("selector.cache.dir", System.getProperty("driver.cache.dir",
+                    System.getProperty("user.home") + File.separator + ".cache" + File.separator + "scm-selenium")),
+            "selector-cache.properties");
+
+    /**
+     * Arguments: candidates as [using, value] pairs, and a map of page -> preferred candidate index.
+     * Returns [page, index, element], with index -1 and a null element when nothing matched.
+     * Invalid candidates (e.g. jQuery-only CSS) are skipped.
+     */
+    private static final String PROBE_SCRIPT =
+            "var candidates = arguments[0], preferred = arguments[1];\n"
+            + "var page = location.host + location.pathname;\n"
+            + "function find(using, value) {\n"
+            + "  switch (using) {\n"
+            + "    case 'css selector': return document.querySelectorAll(value);\n"
+            + "    case 'id': return document.querySelectorAll('#' + CSS.escape(value));\n"
+            + "    case 'name': return document.getElementsByName(value);\n"
+            + "    case 'class name': return document.getElementsByClassName(value);\n"
+            + "    case 'tag name': return document.getElementsByTagName(value);\n"
+            + "    case 'xpath':\n"
+            + "      var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);\n"
+            + "      var nodes = [];\n"
+            + "      for (var i = 0; i < snapshot.snapshotLength; i++) nodes.push(snapshot.snapshotItem(i));\n"
+            + "      return nodes;\n"
+            + "    case 'link text':\n"
+            + "    case 'partial link text':\n"
+            + "      return Array.prototype.filter.call(document.getElementsByTagName('a'), function (a) {\n"
+            + "        var text = a.innerText.trim();\n"
+            + "        return using === 'link text' ? text === value : text.indexOf(value) >= 0;\n"
+            + "      });\n"
+            + "  }\n"
+            + "  return [];\n"
+            + "}\n"
+            + "function usable(el) {\n"
+            + "  if (!(el instanceof Element) || el.disabled) return false;\n"
+            + "  if (el.checkVisibility) return el.checkVisibility({ checkOpacity: true, checkVisibilityCSS: true });\n"
+            + "  var style = getComputedStyle(el);\n"
+            + "  return el.getClientRects().length > 0 && style.visibility !== 'hidden' && style.opacity !== '0';\n"
+            + "}\n"
+            + "var order = candidates.map(function (c, i) { return i; });\n"
+            + "var first = preferred[page];\n"
+            + "if (first !== undefined && first < candidates.length) { order.splice(first, 1); order.unshift(first); }\n"
+            + "for (var k = 0; k < order.length; k++) {\n"
+            + "  var index = order[k], found;\n"
+            + "  try { found = find(candidates[index][0], candidates[index][1]); } catch (e) { continue; }\n"
+            + "  for (var j = 0; j < found.length; j++) {\n"
+            + "    if (usable(found[j])) return [page, index, found[j]];\n"
+            + "  }\n"
+            + "}\n"
+            + "return [page, -1, null];";
+
+    private static Properties winners;
+
+    /**
+     * Waits up to {@code timeout} for any candidate to match a visible, enabled element.
+     * @param key stable name of the lookup, e.g. "google.searchBox"
+     * @throws NoSuchElementException if no candidate matched in time
+     */
+    public static WebElement resolve(WebDriver driver, String key, Duration timeout, By... candidates) {
+        try {
+            return Waits.required(driver, key, timeout, d -> probe(d, key, candidates));
+        } catch (TimeoutException e) {
+            throw new NoSuchElementException("None of " + candidates.length + " candidates for '" + key
+                    + "' matched a visible element within " + timeout.toMillis() + " ms: " + Arrays.toString(candidates));
+        }
+    }
+
+    /**
+     * Probes the candidates once, without waiting. Use for elements that may legitimately be absent.
+     */
+    public static Optional<WebElement> find(WebDriver driver, String key, By... candidates) {
+        return Waits.probe(driver, key, d -> probe(d, key, candidates));
+    }
+
+    /**
+     * Like {@link #find(WebDriver, String, By...)}, but keeps probing for up to {@code timeout}.
+     */
+    public static Optional<WebElement> find(WebDriver driver, String key, Duration timeout, By... candidates) {
+        if (timeout.isZero()) {
+            return find(driver, key, candidates);
+        }
+        return Waits.optional(driver, key, timeout, d -> probe(d, key, candidates));
+    }
+
+    private static WebElement probe(WebDriver driver, String key, By[] candidates) {
+        List<List<Object>> encoded = new ArrayList<>();
+        for (By candidate : candidates) {
+            encoded.add(encode(candidate));
+        }
+        Object result = ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT, encoded, preferred(key, candidates));
+        if (!(result instanceof List<?> values) || values.size() < 3 || !(values.get(2) instanceof WebElement element)) {
+            return null;
+        }
+        remember(key, String.valueOf(values.get(0)), candidates[((Number) values.get(1)).intValue()]);
+        return element;
+    }
+
+    private static List<Object> encode(By candidate) {
+        if (!(candidate instanceof By.Remotable remotable)) {
+            throw new IllegalArgumentException("Locator cannot be evaluated in the browser: " + candidate);
+        }
+        By.Remotable.Parameters parameters = remotable.getRemoteParameters();
+        return List.of(parameters.using(), String.valueOf(parameters.value()));
+    }
+
+    /**
+     * @return page -> index of the candidate that won last time on that page, for this key
+     */
+    private static synchronized Map<String, Integer> preferred(String key, By[] candidates) {
+        Map<String, Integer> preferred = new HashMap<>();
+        if (!CACHE_ENABLED) {
+            return preferred;
+        }
+        String prefix = key + "|";
+        load().forEach((name, locator) -> {
+            String property = (String) name;
+            if (property.startsWith(prefix)) {
+                for (int i = 0; i < candidates.length; i++) {
+                    if (candidates[i].toString().equals(locator)) {
+                        preferred.put(property.substring(prefix.length()), i);
+                    }
+                }
+            }
+        });
+        return preferred;
+    }
+
+    private static synchronized void remember(String key, String page, By winner) {
+        if (!CACHE_ENABLED) {
+            return;
+        }
+        Properties props = load();
+        String property = key + "|" + page;
+        if (winner.toString().equals(props.getProperty(property))) {
+            return;
+        }
+        props.setProperty(property, winner.toString());
+        System.out.println("[SelectorResolver] " + key + " on " + page + " -> " + winner);
+
+        try {
+            Files.createDirectories(CACHE_FILE.getParent());
+            // Write to a temp file and move it into place so concurrent JVMs never read a partial file
+            Path tmp = Files.createTempFile(CACHE_FILE.getParent(), "selector-cache", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "Winning locators per lookup and page - safe to delete");
+            }
+            Files.move(tmp, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[SelectorResolver] ⚠ Could not write " + CACHE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static Properties load() {
+        if (winners == null) {
+            winners = new Properties();
+            if (Files.isRegularFile(CACHE_FILE)) {
+                try (InputStream in = Files.newInputStream(CACHE_FILE)) {
+                    winners.load(in);
+                } catch (IOException e) {
+                    System.err.println("[SelectorResolver] ⚠ Could not read " + CACHE_FILE + ": " + e.getMessage());
+                }
+            }
+        }
+        return winners;
+    }
+}
@@ -0,0 +1,186 @@
+package com.scm.utils;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Splits the discovered scenarios into {@code -Dshard.total} shards of about equal wall time and keeps only
+ * shard {@code -Dshard.index} (0-based), so several CI agents or JVMs can each run a part of the suite:
+ * <pre>
+ * mvn test -Dshard.index=0 -Dshard.total=3    # on agent 1, and so on
+ * </pre>
+ * Scenarios are bin-packed longest first (LPT): each goes to the shard with the least expected time so far.
+ * Expected times come from previous Cucumber JSON reports ({@code -Dshard.history}, comma-separated, see
+ * {@link TimingHistory}); scenarios without history count as the average. Every shard must see the same
+ * scenarios and history to compute the same split, so there is no default: the history has to be a copy
+ * shared by all agents (e.g. a CI artifact), never the report each agent's own last run left in {@code target/}.
+ * Without {@code -Dshard.history} every scenario counts the same, which splits them by count in URI and
+ * line order. A history file that does not exist fails the run rather than silently splitting differently.
+ * <p>
+ * Each shard prints a checksum of the whole assignment (every scenario and its shard); all agents of a run
+ * must print the same one.
+ * <p>
+ * Registered with the JUnit Platform launcher through {@code META-INF/services}; without
+ * {@code -Dshard.total} (or with 1) it keeps everything.
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+    private static final int INDEX = Integer.getInteger("shard.index", 0);
+    private static final int TOTAL = Integer.getInteger("shard.total", 1);
+    // Assumed duration when no scenario has history at all; only the relative size matters
+    private static final double DEFAULT_SECONDS = 1.0;
+    // What a test run writes; as history it would differ from agent to agent
+    private static final Path OWN_REPORT = Paths.get("target/cucumber-reports/cucumber.json").toAbsolutePath().normalize();
+
+    // Root unique id -> scenarios of this shard in that tree
+    private final Map<UniqueId, Set<UniqueId>> selected = new HashMap<>();
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (TOTAL <= 1 || !descriptor.isTest() || scenarioKey(descriptor).isEmpty()) {
+            return FilterResult.included("not sharded");
+        }
+        if (INDEX < 0 || INDEX >= TOTAL) {
+            throw new IllegalArgumentException("-Dshard.index must be between 0 and " + (TOTAL - 1) + ", was " + INDEX);
+        }
+        Set<UniqueId> shard = selected.computeIfAbsent(root(descriptor).getUniqueId(), id -> assign(root(descriptor)));
+        return shard.contains(descriptor.getUniqueId())
+                ? FilterResult.included("in shard " + INDEX + " of " + TOTAL)
+                : FilterResult.excluded("in another shard than " + INDEX + " of " + TOTAL);
+    }
+
+    private static Set<UniqueId> assign(TestDescriptor root) {
+        List<Path> reports = TimingHistory.paths(System.getProperty("shard.history", ""));
+        for (Path report : reports) {
+            if (!Files.isRegularFile(report)) {
+                throw new IllegalArgumentException("-Dshard.history report " + report + " does not exist; every shard "
+                        + "needs the same history to compute the same split");
+            }
+            if (report.toAbsolutePath().normalize().equals(OWN_REPORT)) {
+                System.out.println("[ShardFilter] ⚠ -Dshard.history " + report + " is the report this run overwrites; "
+                        + "shards only agree if every agent has the same copy");
+            }
+        }
+        if (reports.isEmpty()) {
+            System.out.println("[ShardFilter] ⚠ No -Dshard.history; splitting scenarios by count");
+        }
+        TimingHistory history = TimingHistory.fromReports(reports);
+
+        Map<String, UniqueId> ids = new HashMap<>();
+        for (TestDescriptor test : tests(root)) {
+            ids.put(scenarioKey(test).orElseThrow(), test.getUniqueId());
+        }
+        List<String> keys = new ArrayList<>(ids.keySet());
+        long unknown = keys.stream().filter(key -> history.seconds(key).isEmpty()).count();
+        Assignment assignment = assign(estimate(keys, history), TOTAL);
+
+        Set<UniqueId> mine = new HashSet<>();
+        assignment.shards().forEach((key, shard) -> {
+            if (shard == INDEX) {
+                mine.add(ids.get(key));
+            }
+        });
+        StringBuilder loads = new StringBuilder();
+        for (double seconds : assignment.loads()) {
+            loads.append(loads.length() == 0 ? "" : ", ").append(String.format("%.1f s", seconds));
+        }
+        System.out.println("[ShardFilter] Shard " + INDEX + " of " + TOTAL + ": " + mine.size() + " of " + keys.size()
+                + " scenarios, expected " + String.format("%.1f s", assignment.loads()[INDEX]) + " (all shards: " + loads
+                + "; " + unknown + " without history); assignment checksum " + assignment.checksum()
+                + " (must match on every shard)");
+        return mine;
+    }
+
+    record Estimate(String key, double seconds) {
+    }
+
+    /**
+     * @param shards   the shard of every scenario key
+     * @param loads    expected seconds per shard
+     * @param checksum first 12 hex digits of a SHA-256 over every scenario and its shard, in assignment order
+     */
+    record Assignment(Map<String, Integer> shards, double[] loads, String checksum) {
+    }
+
+    /**
+     * @return the scenarios with their average duration in the history, or the average of all known
+     *         scenarios for those without history
+     */
+    static List<Estimate> estimate(List<String> keys, TimingHistory history) {
+        double fallback = history.meanSeconds(DEFAULT_SECONDS);
+        return keys.stream().map(key -> new Estimate(key, history.seconds(key).orElse(fallback))).toList();
+    }
+
+    /**
+     * Bin-packs longest first: each scenario goes to the shard with the least expected time so far, the lowest
+     * shard on a tie. Ties in duration are broken by key, so the result does not depend on the input order.
+     */
+    static Assignment assign(List<Estimate> scenarios, int total) {
+        List<Estimate> sorted = new ArrayList<>(scenarios);
+        sorted.sort(Comparator.comparingDouble(Estimate::seconds).reversed().thenComparing(Estimate::key));
+
+        double[] load = new double[total];
+        Map<String, Integer> shards = new LinkedHashMap<>();
+        MessageDigest checksum = sha256();
+        for (Estimate scenario : sorted) {
+            int lightest = 0;
+            for (int shard = 1; shard < total; shard++) {
+                if (load[shard] < load[lightest]) {
+                    lightest = shard;
+                }
+            }
+            load[lightest] += scenario.seconds();
+            shards.put(scenario.key(), lightest);
+            checksum.update((scenario.key() + "=" + lightest + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return new Assignment(shards, load, HexFormat.of().formatHex(checksum.digest()).substring(0, 12));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Optional<String> scenarioKey(TestDescriptor descriptor) {
+        return descriptor.getSource().flatMap(TimingHistory::key);
+    }
+
+    private static List<TestDescriptor> tests(TestDescriptor root) {
+        List<TestDescriptor> tests = new ArrayList<>();
+        root.accept(descriptor -> {
+            if (descriptor.isTest() && scenarioKey(descriptor).isPresent()) {
+                tests.add(descriptor);
+            }
+        });
+        return tests;
+    }
+
+    private static TestDescriptor root(TestDescriptor descriptor) {
+        TestDescriptor root = descriptor;
+        while (root.getParent().isPresent()) {
+            root = root.getParent().get();
+        }
+        return root;
+    }
+}
@@ -0,0 +1,90 @@
+package com.scm.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.scm.utils.TimingHistoryTest.CHECKOUT;
+import static com.scm.utils.TimingHistoryTest.SEARCH;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * The split computed by {@link ShardFilter}, from estimates and from the {@code reports/timing} fixtures
+ * (see {@link TimingHistoryTest}).
+ */
+class ShardFilterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void estimatesScenariosWithoutHistoryAsTheAverage() throws IOException {
+        TimingHistory history = TimingHistory.fromReports(List.of(TimingHistoryTest.copyFixture(dir, "run-1.json")));
+
+        List<ShardFilter.Estimate> estimates = ShardFilter.estimate(
+                List.of(CHECKOUT + ":6", SEARCH + ":3", SEARCH + ":8", "classpath:features/new.feature:3"), history);
+
+        assertEquals(List.of(new ShardFilter.Estimate(CHECKOUT + ":6", 4.0), new ShardFilter.Estimate(SEARCH + ":3", 6.0),
+                new ShardFilter.Estimate(SEARCH + ":8", 14.0 / 3), new ShardFilter.Estimate("classpath:features/new.feature:3", 14.0 / 3)),
+                estimates);
+        // With no history at all, every scenario counts the same
+        assertEquals(List.of(new ShardFilter.Estimate(CHECKOUT + ":6", 1.0)),
+                ShardFilter.estimate(List.of(CHECKOUT + ":6"), TimingHistory.fromReports(List.of())));
+    }
+
+    @Test
+    void packsTheLongestScenarioIntoTheLightestShard() {
+        ShardFilter.Assignment assignment = ShardFilter.assign(List.of(
+                estimate("e", 2), estimate("c", 4), estimate("a", 7), estimate("d", 3), estimate("b", 5)), 2);
+
+        // a -> 0 (7), b -> 1 (5), c -> 1 (9), d -> 0 (10), e -> 1 (11)
+        assertEquals(Map.of("a", 0, "b", 1, "c", 1, "d", 0, "e", 1), assignment.shards());
+        assertEquals(List.of("a", "b", "c", "d", "e"), List.copyOf(assignment.shards().keySet()));
+        assertArrayEquals(new double[] {10, 11}, assignment.loads());
+        assertEquals("fe6ef8e38225", assignment.checksum());
+    }
+
+    @Test
+    void breaksTiesByKeyAndThenByLowestShard() {
+        ShardFilter.Assignment assignment = ShardFilter.assign(List.of(estimate("z", 1), estimate("y", 1), estimate("x", 1)), 2);
+
+        assertEquals(List.of("x", "y", "z"), List.copyOf(assignment.shards().keySet()));
+        assertEquals(Map.of("x", 0, "y", 1, "z", 0), assignment.shards());
+        assertEquals("62109026b1bc", assignment.checksum());
+    }
+
+    @Test
+    void computesTheSameSplitWhateverTheDiscoveryOrder() {
+        List<ShardFilter.Estimate> estimates = new ArrayList<>();
+        for (int line = 1; line <= 40; line++) {
+            estimates.add(estimate(CHECKOUT + ":" + line, line % 7));
+        }
+        ShardFilter.Assignment expected = ShardFilter.assign(estimates, 3);
+
+        Collections.reverse(estimates);
+        ShardFilter.Assignment reversed = ShardFilter.assign(estimates, 3);
+
+        assertEquals(expected.shards(), reversed.shards());
+        assertEquals(expected.checksum(), reversed.checksum());
+    }
+
+    @Test
+    void checksumChangesWithTheAssignment() {
+        List<ShardFilter.Estimate> estimates = List.of(estimate("x", 1), estimate("y", 1), estimate("z", 1));
+
+        assertNotEquals(ShardFilter.assign(estimates, 2).checksum(), ShardFilter.assign(estimates, 3).checksum());
+        assertNotEquals(ShardFilter.assign(estimates, 2).checksum(),
+                ShardFilter.assign(List.of(estimate("x", 1), estimate("y", 1), estimate("z", 2)), 2).checksum());
+    }
+
+    private static ShardFilter.Estimate estimate(String key, double seconds) {
+        return new ShardFilter.Estimate(key, seconds);
+    }
+}
@@ -0,0 +1,168 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Named, nestable timing spans for step glue, measured with {@link System#nanoTime()}.
+ * <pre>
+ * Spans.time("search", () -> {
+ *     ...
+ * });
+ * long nanos = Spans.last("search").orElseThrow().durationNanos();
+ * </pre>
+ * A span started while another is open becomes its child. Spans are kept per thread (one scenario);
+ * {@code Hooks} attaches the finished tree to the scenario as {@code application/json} named
+ * {@value #ATTACHMENT_NAME}, which {@link ReportGenerator} renders under the scenario.
+ */
+public class Spans {
+    public static final String ATTACHMENT_NAME = "spans";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(Recorder::new);
+
+    /**
+     * A finished span; offsets are relative to the start of the scenario.
+     */
+    public record Timing(String name, long startNanos, long durationNanos, List<Timing> children) {
+    }
+
+    /**
+     * Opens a span; close it (try-with-resources) to record it. {@link #time} is simpler when a block can be a lambda.
+     */
+    public static Span start(String name) {
+        return recorder.get().open(name);
+    }
+
+    /**
+     * Runs {@code body} inside a span named {@code name}.
+     */
+    public static void time(String name, Runnable body) {
+        Span span = start(name);
+        try {
+            body.run();
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Runs {@code body} inside a span named {@code name} and returns its result.
+     */
+    public static <T> T time(String name, Supplier<T> body) {
+        Span span = start(name);
+        try {
+            return body.get();
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * @return the most recently finished span with this name (at any depth) in this scenario
+     */
+    public static Optional<Timing> last(String name) {
+        return Optional.ofNullable(recorder.get().last(name, recorder.get().roots));
+    }
+
+    /**
+     * Starts a fresh record for the calling thread (one scenario).
+     */
+    public static void reset() {
+        recorder.set(new Recorder());
+    }
+
+    /**
+     * @return the finished top-level spans of the calling thread, in start order
+     */
+    public static List<Timing> getTimings() {
+        return List.copyOf(recorder.get().roots);
+    }
+
+    public static String toJson(List<Timing> timings) {
+        try {
+            return MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(timings);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An open span. Closing it records its duration; closing it twice has no further effect.
+     */
+    public static class Span implements AutoCloseable {
+        private final Recorder owner;
+        private final String name;
+        private final long start = System.nanoTime();
+        private final List<Timing> children = new ArrayList<>();
+        private long duration = -1;
+
+        private Span(Recorder owner, String name) {
+            this.owner = owner;
+            this.name = name;
+        }
+
+        /**
+         * @return the span's duration in nanoseconds
+         */
+        public long end() {
+            if (duration < 0) {
+                duration = System.nanoTime() - start;
+                owner.close(this);
+            }
+            return duration;
+        }
+
+        @Override
+        public void close() {
+            end();
+        }
+    }
+
+    private static class Recorder {
+        private final long origin = System.nanoTime();
+        private final Deque<Span> open = new ArrayDeque<>();
+        private final List<Timing> roots = new ArrayList<>();
+
+        Span open(String name) {
+            Span span = new Span(this, name);
+            open.push(span);
+            return span;
+        }
+
+        void close(Span span) {
+            // Spans closed out of order also close any spans still open inside them
+            while (!open.isEmpty() && open.peek() != span && open.contains(span)) {
+                open.peek().end();
+            }
+            open.remove(span);
+            Timing timing = new Timing(span.name, span.start - origin, span.duration, List.copyOf(span.children));
+            if (open.isEmpty()) {
+                roots.add(timing);
+            } else {
+                open.peek().children.add(timing);
+            }
+        }
+
+        Timing last(String name, List<Timing> timings) {
+            for (int i = timings.size() - 1; i >= 0; i--) {
+                Timing timing = timings.get(i);
+                Timing nested = last(name, timing.children());
+                if (nested != null) {
+                    return nested;
+                }
+                if (timing.name().equals(name)) {
+                    return timing;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClasspathResourceSource;
+import org.junit.platform.engine.support.descriptor.FilePosition;
+import org.junit.platform.engine.support.descriptor.FileSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Properties;
+
+/**
+ * How long each scenario took in previous runs, for scheduling decisions such as {@link ShardFilter} and
+ * {@link LongestFirstOrder}. A scenario is identified by its feature URI and line as Cucumber reports them,
+ * e.g. {@code classpath:features/google_search.feature:12}.
+ * <p>
+ * Two sources:
+ * <ul>
+ *   <li>Cucumber JSON reports ({@link #fromReports}): a scenario's duration is the sum of its hooks and steps
+ *       plus the background steps reported just before it, which is what {@link TimingRecorder} measures;
+ *       when several reports contain the same scenario the durations are averaged and scenarios in which
+ *       nothing ran are ignored. Reports are read with a streaming parser and embeddings are skipped.</li>
+ *   <li>The local history ({@link #local()}), which {@link TimingRecorder} updates after every run: one
+ *       smoothed duration per scenario in {@code timing-history.properties} under {@code -Dtiming.history.dir}
+ *       (default: the driver resolution cache directory, {@code ~/.cache/scm-selenium}).</li>
+ * </ul>
+ */
+public class TimingHistory {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Path LOCAL_FILE = Paths.get(
+            System.getProperty("timing.history.dir", System.getProperty("driver.cache.dir",
+                    System.getProperty("user.home") + File.separator + ".cache" + File.separator + "scm-selenium")),
+            "timing-history.properties");
+    // Weight of the newest run in the local history; older runs fade out
+    private static final double SMOOTHING = 0.5;
+
+    private final Map<String, double[]> totals = new HashMap<>(); // key -> {sum of seconds, count}
+
+    /**
+     * Reads every report that exists; missing or unreadable ones are skipped with a warning.
+     */
+    public static TimingHistory fromReports(List<Path> reports) {
+        TimingHistory history = new TimingHistory();
+        for (Path report : reports) {
+            if (!Files.isRegularFile(report)) {
+                continue;
+            }
+            try (JsonParser parser = JSON.createParser(report.toFile())) {
+                history.read(parser);
+            } catch (IOException e) {
+                System.err.println("[TimingHistory] ⚠ Skipping unreadable report " + report + ": " + e.getMessage());
+            }
+        }
+        return history;
+    }
+
+    /**
+     * @return the local history; empty if there is none yet
+     */
+    public static TimingHistory local() {
+        TimingHistory history = new TimingHistory();
+        loadLocal().forEach((key, seconds) -> history.add((String) key, Double.parseDouble((String) seconds)));
+        return history;
+    }
+
+    /**
+     * Folds one run's scenario durations into the local history.
+     * @param observed seconds per scenario key
+     */
+    public static synchronized void updateLocal(Map<String, Double> observed) {
+        if (observed.isEmpty()) {
+            return;
+        }
+        Properties props = loadLocal();
+        for (Map.Entry<String, Double> scenario : observed.entrySet()) {
+            String previous = props.getProperty(scenario.getKey());
+            double seconds = previous == null ? scenario.getValue()
+                    : SMOOTHING * scenario.getValue() + (1 - SMOOTHING) * Double.parseDouble(previous);
+            props.setProperty(scenario.getKey(), String.format(Locale.ROOT, "%.3f", seconds));
+        }
+        try {
+            Files.createDirectories(LOCAL_FILE.getParent());
+            // Write to a temp file and move it into place so concurrent JVMs never read a partial file
+            Path tmp = Files.createTempFile(LOCAL_FILE.getParent(), "timing-history", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "Smoothed scenario durations in seconds - safe to delete");
+            }
+            Files.move(tmp, LOCAL_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("[TimingHistory] ✓ Recorded " + observed.size() + " scenario durations in " + LOCAL_FILE);
+        } catch (IOException e) {
+            System.err.println("[TimingHistory] ⚠ Could not write " + LOCAL_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static Properties loadLocal() {
+        Properties props = new Properties();
+        if (Files.isRegularFile(LOCAL_FILE)) {
+            try (InputStream in = Files.newInputStream(LOCAL_FILE)) {
+                props.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("[TimingHistory] ⚠ Could not read " + LOCAL_FILE + ": " + e.getMessage());
+            }
+        }
+        props.entrySet().removeIf(entry -> !isNumber((String) entry.getValue()));
+        return props;
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param paths comma-separated report paths, e.g. the value of a system property
+     */
+    public static List<Path> paths(String paths) {
+        List<Path> result = new ArrayList<>();
+        for (String path : paths.split(",")) {
+            if (!path.isBlank()) {
+                result.add(Paths.get(path.trim()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the key Cucumber JSON uses for the scenario a JUnit Platform source points at, if it is a feature file
+     */
+    public static Optional<String> key(TestSource source) {
+        String uri;
+        Optional<FilePosition> position;
+        if (source instanceof ClasspathResourceSource classpath) {
+            uri = "classpath:" + classpath.getClasspathResourceName();
+            position = classpath.getPosition();
+        } else if (source instanceof FileSource file) {
+            Path path = file.getFile().toPath().toAbsolutePath();
+            Path base = Paths.get("").toAbsolutePath();
+            uri = "file:" + (path.startsWith(base) ? base.relativize(path) : path).toString().replace('\\', '/');
+            position = file.getPosition();
+        } else {
+            return Optional.empty();
+        }
+        if (!uri.endsWith(".feature") || position.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(key(uri, position.get().getLine()));
+    }
+
+    public static String key(String uri, int line) {
+        return uri + ":" + line;
+    }
+
+    /**
+     * @return the scenario's average duration in seconds, if it ran before
+     */
+    public OptionalDouble seconds(String key) {
+        double[] total = totals.get(key);
+        return total == null ? OptionalDouble.empty() : OptionalDouble.of(total[0] / total[1]);
+    }
+
+    /**
+     * @return the average duration over all known scenarios, or {@code fallback} if none is known
+     */
+    public double meanSeconds(double fallback) {
+        return totals.values().stream().mapToDouble(total -> total[0] / total[1]).average().orElse(fallback);
+    }
+
+    public int size() {
+        return totals.size();
+    }
+
+    /**
+     * Records one run of a scenario.
+     */
+    public void add(String key, double seconds) {
+        double[] total = totals.computeIfAbsent(key, k -> new double[2]);
+        total[0] += seconds;
+        total[1]++;
+    }
+
+    private void read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            // Cucumber writes "elements" before "uri", so durations wait for the end of the feature
+            String uri = null;
+            Map<Integer, Double> scenarios = new HashMap<>();
+            long background = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("uri".equals(field) && value == JsonToken.VALUE_STRING) {
+                    uri = parser.getText();
+                } else if ("elements".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        // Cucumber reports the background steps as an element of their own before each scenario
+                        Element element = readElement(parser);
+                        if ("background".equals(element.type())) {
+                            background = element.nanos();
+                            continue;
+                        }
+                        long nanos = background + element.nanos();
+                        background = 0;
+                        if ("scenario".equals(element.type()) && element.line() > 0 && nanos > 0) {
+                            scenarios.put(element.line(), nanos / 1_000_000_000.0);
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (uri != null) {
+                for (Map.Entry<Integer, Double> scenario : scenarios.entrySet()) {
+                    add(key(uri, scenario.getKey()), scenario.getValue());
+                }
+            }
+        }
+    }
+
+    private record Element(String type, int line, long nanos) {
+    }
+
+    /**
+     * @return the element's type, line and the total duration of its hooks and steps
+     */
+    private static Element readElement(JsonParser parser) throws IOException {
+        int line = -1;
+        String type = null;
+        long nanos = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("line".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                line = parser.getIntValue();
+            } else if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                type = parser.getText();
+            } else if (("before".equals(field) || "steps".equals(field) || "after".equals(field))
+                    && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    nanos += readDuration(parser);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Element(type, line, nanos);
+    }
+
+    /**
+     * @return {@code result.duration} of the step or hook the parser is in, skipping everything else
+     */
+    private static long readDuration(JsonParser parser) throws IOException {
+        long nanos = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("result".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String resultField = parser.getCurrentName();
+                    JsonToken resultValue = parser.nextToken();
+                    if ("duration".equals(resultField) && resultValue.isNumeric()) {
+                        nanos = Math.max(0, parser.getLongValue());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,107 @@
+package com.scm.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.engine.support.descriptor.ClasspathResourceSource;
+import org.junit.platform.engine.support.descriptor.FilePosition;
+import org.junit.platform.engine.support.descriptor.FileSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link TimingHistory} over the fixtures in {@code reports/timing}: in run 1 the checkout feature has a one-second
+ * background before a card payment (line 6, with hooks) and an invoice payment (line 9), and the search feature a
+ * scenario that ran (line 3) and one that was skipped (line 8). Run 2 has the card payment again, with a slower
+ * background.
+ */
+class TimingHistoryTest {
+    static final String CHECKOUT = "classpath:features/checkout.feature";
+    static final String SEARCH = "classpath:features/search.feature";
+
+    @TempDir
+    Path dir;
+
+    private Path run1;
+    private Path run2;
+
+    @BeforeEach
+    void copyFixtures() throws IOException {
+        run1 = copyFixture(dir, "run-1.json");
+        run2 = copyFixture(dir, "run-2.json");
+    }
+
+    static Path copyFixture(Path dir, String name) throws IOException {
+        try (InputStream in = TimingHistoryTest.class.getResourceAsStream("/reports/timing/" + name)) {
+            Path target = dir.resolve(name);
+            Files.copy(in, target);
+            return target;
+        }
+    }
+
+    @Test
+    void countsTheBackgroundBeforeEachScenario() {
+        TimingHistory history = TimingHistory.fromReports(List.of(run1));
+
+        // Background, before hook, step and after hook, as TimingRecorder measures the test case
+        assertEquals(OptionalDouble.of(4.0), history.seconds(CHECKOUT + ":6"));
+        // The second scenario has a background of its own in the report
+        assertEquals(OptionalDouble.of(4.0), history.seconds(CHECKOUT + ":9"));
+        assertEquals(OptionalDouble.of(6.0), history.seconds(SEARCH + ":3"));
+    }
+
+    @Test
+    void ignoresScenariosInWhichNothingRan() {
+        TimingHistory history = TimingHistory.fromReports(List.of(run1));
+
+        assertEquals(OptionalDouble.empty(), history.seconds(SEARCH + ":8"));
+        assertEquals(3, history.size());
+    }
+
+    @Test
+    void averagesAScenarioOverReports() {
+        TimingHistory history = TimingHistory.fromReports(List.of(run1, run2));
+
+        assertEquals(OptionalDouble.of(5.0), history.seconds(CHECKOUT + ":6"));
+        assertEquals(3, history.size());
+        assertEquals(5.0, history.meanSeconds(1.0), 1e-9);
+    }
+
+    @Test
+    void skipsMissingAndUnreadableReports() throws IOException {
+        Path broken = dir.resolve("broken.json");
+        Files.writeString(broken, "not a report");
+
+        TimingHistory history = TimingHistory.fromReports(List.of(dir.resolve("missing.json"), broken, run2));
+
+        assertEquals(1, history.size());
+        assertEquals(OptionalDouble.of(6.0), history.seconds(CHECKOUT + ":6"));
+        assertEquals(1.0, TimingHistory.fromReports(List.of()).meanSeconds(1.0));
+    }
+
+    @Test
+    void splitsCommaSeparatedPaths() {
+        assertEquals(List.of(Paths.get("a.json"), Paths.get("b/c.json")), TimingHistory.paths(" a.json,, b/c.json ,"));
+    }
+
+    @Test
+    void keysATestSourceAsCucumberJsonDoes() {
+        assertEquals(Optional.of(CHECKOUT + ":6"),
+                TimingHistory.key(ClasspathResourceSource.from("features/checkout.feature", FilePosition.from(6))));
+        assertEquals(Optional.of("file:src/test/resources/features/search.feature:3"), TimingHistory.key(
+                FileSource.from(Paths.get("src/test/resources/features/search.feature").toFile(), FilePosition.from(3))));
+        // A feature without a line, or anything else, is not a scenario
+        assertEquals(Optional.empty(), TimingHistory.key(ClasspathResourceSource.from("features/checkout.feature")));
+        assertEquals(Optional.empty(), TimingHistory.key(ClasspathResourceSource.from("junit-platform.properties",
+                FilePosition.from(1))));
+    }
+}
@@ -0,0 +1,35 @@
+package com.scm.utils;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cucumber plugin that adds the duration of every passed scenario to the local {@link TimingHistory}
+ * at the end of the run, for {@link LongestFirstOrder}. Failed scenarios are left out: a run that stopped
+ * at the first broken step says little about how long the scenario takes.
+ */
+public class TimingRecorder implements ConcurrentEventListener {
+    private final Map<String, Double> observed = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> TimingHistory.updateLocal(observed));
+    }
+
+    private void onTestCaseFinished(TestCaseFinished event) {
+        if (event.getResult().getStatus() != Status.PASSED) {
+            return;
+        }
+        TestCase testCase = event.getTestCase();
+        observed.put(TimingHistory.key(testCase.getUri().toString(), testCase.getLocation().getLine()),
+                event.getResult().getDuration().toNanos() / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,189 @@
+package com.scm.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Central wait policy. Sessions run with a zero implicit wait (see {@link DriverManager}), so every
+ * wait is explicit, happens once, and has a budget that matches what is being waited for:
+ * <ul>
+ *   <li>{@link #required} - the step cannot continue without it; times out with a {@link TimeoutException}
+ *       ({@code -Dwait.required}, default 15 s)</li>
+ *   <li>{@link #optional} - may legitimately never happen; returns empty on timeout
+ *       ({@code -Dwait.optional}, default 2 s)</li>
+ *   <li>{@link #absent} - waits for something to go away, e.g. an overlay ({@code -Dwait.absent}, default 5 s)</li>
+ *   <li>{@link #probe} - checks once, without waiting; for optional UI such as error banners</li>
+ * </ul>
+ * Every outcome is recorded for the current thread; {@code Hooks} attaches the scenario's record to the report.
+ * Budgets are in seconds.
+ */
+public class Waits {
+    public enum Kind { REQUIRED, OPTIONAL, ABSENT, PROBE }
+
+    /**
+     * @param met           whether the condition held (for ABSENT: whether the element was gone)
+     * @param elapsedMillis time spent waiting
+     * @param budgetMillis  maximum time the wait was allowed, 0 for probes
+     */
+    public record Outcome(String name, Kind kind, boolean met, long elapsedMillis, long budgetMillis) {
+    }
+
+    public static final Duration REQUIRED = Duration.ofSeconds(Long.getLong("wait.required", 15));
+    public static final Duration OPTIONAL = Duration.ofSeconds(Long.getLong("wait.optional", 2));
+    public static final Duration ABSENT = Duration.ofSeconds(Long.getLong("wait.absent", 5));
+    private static final Duration POLL = Duration.ofMillis(50);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final ThreadLocal<List<Outcome>> outcomes = ThreadLocal.withInitial(ArrayList::new);
+
+    public static <T> T required(WebDriver driver, String name, Function<? super WebDriver, T> condition) {
+        return required(driver, name, REQUIRED, condition);
+    }
+
+    /**
+     * @throws TimeoutException if the condition did not hold within the budget
+     */
+    public static <T> T required(WebDriver driver, String name, Duration budget, Function<? super WebDriver, T> condition) {
+        long start = System.nanoTime();
+        try {
+            T value = until(driver, budget, condition);
+            record(name, Kind.REQUIRED, true, start, budget);
+            return value;
+        } catch (TimeoutException e) {
+            record(name, Kind.REQUIRED, false, start, budget);
+            throw e;
+        }
+    }
+
+    public static <T> Optional<T> optional(WebDriver driver, String name, Function<? super WebDriver, T> condition) {
+        return optional(driver, name, OPTIONAL, condition);
+    }
+
+    public static <T> Optional<T> optional(WebDriver driver, String name, Duration budget,
+                                           Function<? super WebDriver, T> condition) {
+        long start = System.nanoTime();
+        try {
+            T value = until(driver, budget, condition);
+            record(name, Kind.OPTIONAL, true, start, budget);
+            return Optional.of(value);
+        } catch (TimeoutException e) {
+            record(name, Kind.OPTIONAL, false, start, budget);
+            return Optional.empty();
+        }
+    }
+
+    public static boolean absent(WebDriver driver, String name, By locator) {
+        return absent(driver, name, ABSENT, locator);
+    }
+
+    /**
+     * @return true once no displayed element matches the locator, false if one is still shown after the budget
+     */
+    public static boolean absent(WebDriver driver, String name, Duration budget, By locator) {
+        long start = System.nanoTime();
+        try {
+            until(driver, budget, d -> firstDisplayed(d, locator) == null);
+            record(name, Kind.ABSENT, true, start, budget);
+            return true;
+        } catch (TimeoutException e) {
+            record(name, Kind.ABSENT, false, start, budget);
+            return false;
+        }
+    }
+
+    /**
+     * @return the first displayed element matching the locator right now
+     */
+    public static Optional<WebElement> probe(WebDriver driver, String name, By locator) {
+        return probe(driver, name, d -> firstDisplayed(d, locator));
+    }
+
+    /**
+     * Evaluates the condition once; null, false and WebDriver errors count as "not there".
+     */
+    public static <T> Optional<T> probe(WebDriver driver, String name, Function<? super WebDriver, T> condition) {
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = condition.apply(driver);
+        } catch (WebDriverException e) {
+            value = null;
+        }
+        boolean met = value != null && !Boolean.FALSE.equals(value);
+        record(name, Kind.PROBE, met, start, Duration.ZERO);
+        return met ? Optional.of(value) : Optional.empty();
+    }
+
+    /**
+     * Starts a fresh record for the calling thread (one scenario).
+     */
+    public static void reset() {
+        outcomes.get().clear();
+    }
+
+    /**
+     * @return the calling thread's outcomes since the last {@link #reset()}, in order
+     */
+    public static List<Outcome> getOutcomes() {
+        return List.copyOf(outcomes.get());
+    }
+
+    /**
+     * One-line digest: number of waits, total time, timeouts and the slowest wait.
+     */
+    public static String summary(List<Outcome> recorded) {
+        long total = recorded.stream().mapToLong(Outcome::elapsedMillis).sum();
+        long missed = recorded.stream().filter(o -> !o.met() && o.kind() != Kind.PROBE).count();
+        String slowest = recorded.stream().max(Comparator.comparingLong(Outcome::elapsedMillis))
+                .map(o -> ", slowest: " + o.name() + " (" + o.elapsedMillis() + " ms)").orElse("");
+        return recorded.size() + " waits, " + total + " ms total, " + missed + " timed out" + slowest;
+    }
+
+    public static String toJson(List<Outcome> recorded) {
+        try {
+            return MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(recorded);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T until(WebDriver driver, Duration budget, Function<? super WebDriver, T> condition) {
+        // A stale element or a script run during navigation means "not yet", not a failure
+        return new WebDriverWait(driver, budget, POLL)
+                .ignoring(StaleElementReferenceException.class)
+                .ignoring(JavascriptException.class)
+                .until(condition);
+    }
+
+    private static WebElement firstDisplayed(WebDriver driver, By locator) {
+        for (WebElement element : driver.findElements(locator)) {
+            try {
+                if (element.isDisplayed()) {
+                    return element;
+                }
+            } catch (StaleElementReferenceException ignore) {
+                // Gone between lookup and check
+            }
+        }
+        return null;
+    }
+
+    private static void record(String name, Kind kind, boolean met, long startNanos, Duration budget) {
+        outcomes.get().add(new Outcome(name, kind, met, (System.nanoTime() - startNanos) / 1_000_000, budget.toMillis()));
+    }
+}
@@ -0,0 +1,55 @@
+// Suggestions dropdown and clear button of the search box, as on the live homepage
+(function () {
+  var form = document.querySelector('form.search');
+  var box = form.querySelector('[name=q]');
+  var list = document.createElement('ul');
+  list.setAttribute('role', 'listbox');
+  list.hidden = true;
+  form.appendChild(list);
+  var pending = 0;
+
+  function hide() {
+    list.hidden = true;
+    list.innerHTML = '';
+  }
+
+  box.addEventListener('input', function () {
+    var query = box.value.trim();
+    var request = ++pending;
+    if (!query) {
+      hide();
+      return;
+    }
+    fetch(form.dataset.complete + '?q=' + encodeURIComponent(query))
+      .then(function (response) { return response.json(); })
+      .then(function (suggestions) {
+        if (request !== pending) return;
+        list.innerHTML = '';
+        suggestions.forEach(function (suggestion) {
+          var item = document.createElement('li');
+          item.setAttribute('role', 'option');
+          item.textContent = suggestion;
+          item.addEventListener('mousedown', function () {
+            box.value = suggestion;
+            form.submit();
+          });
+          list.appendChild(item);
+        });
+        list.hidden = suggestions.length === 0;
+      });
+  });
+
+  box.addEventListener('keydown', function (event) {
+    if (event.key === 'Enter') {
+      event.preventDefault();
+      if (box.value.trim()) form.submit();
+    }
+  });
+
+  form.querySelector('button[aria-label=Clear]').addEventListener('click', function () {
+    box.value = '';
+    pending++;
+    hide();
+    box.focus();
+  });
+})();